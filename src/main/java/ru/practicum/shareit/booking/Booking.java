@@ -3,6 +3,7 @@ package ru.practicum.shareit.booking;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.ColumnDefault;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 
@@ -37,4 +38,9 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     BookingStatus status;
+
+    // Номер последнего изменения строки в ленте /changes; назначается при коммите, см. ChangeSequencer
+    @ColumnDefault("0")
+    @Column(name = "change_seq", nullable = false, insertable = false, updatable = false)
+    Long changeSeq;
 }
\ No newline at end of file
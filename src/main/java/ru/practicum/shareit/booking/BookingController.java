@@ -2,10 +2,22 @@ package ru.practicum.shareit.booking;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchRequestDto;
+import ru.practicum.shareit.booking.dto.BookingBulkApproveDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingRecurringRequestDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.bulk.dto.BulkResultDto;
+import ru.practicum.shareit.export.ExportFormat;
+import ru.practicum.shareit.export.ExportService;
+import ru.practicum.shareit.idempotency.IdempotencyStore;
 
 import java.util.List;
 
@@ -15,12 +27,17 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final ExportService exportService;
+    private final IdempotencyStore idempotencyStore;
+    private final BookingEventStream bookingEventStream;
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
 
     @PostMapping
     public BookingDto create(@Valid @RequestBody BookingRequestDto requestDto,
-                             @RequestHeader(USER_ID_HEADER) Long userId) {
-        return bookingService.create(requestDto, userId);
+                             @RequestHeader(USER_ID_HEADER) Long userId,
+                             @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("POST /bookings", userId, idempotencyKey, requestDto, BookingDto.class,
+                () -> bookingService.create(requestDto, userId));
     }
 
     @PatchMapping("/{bookingId}")
@@ -30,6 +47,24 @@ public class BookingController {
         return bookingService.approve(bookingId, userId, approved);
     }
 
+    @PostMapping("/batch")
+    public List<BookingDto> createBatch(@Valid @RequestBody BookingBatchRequestDto requestDto,
+                                        @RequestHeader(USER_ID_HEADER) Long userId) {
+        return bookingService.createBatch(requestDto, userId);
+    }
+
+    @PostMapping("/recurring")
+    public List<BookingDto> createRecurring(@Valid @RequestBody BookingRecurringRequestDto requestDto,
+                                            @RequestHeader(USER_ID_HEADER) Long userId) {
+        return bookingService.createRecurring(requestDto, userId);
+    }
+
+    @PatchMapping("/bulk")
+    public List<BulkResultDto> approveAll(@Valid @RequestBody BookingBulkApproveDto requestDto,
+                                          @RequestHeader(USER_ID_HEADER) Long userId) {
+        return bookingService.approveAll(userId, requestDto.getBookingIds(), requestDto.getApproved());
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getById(@PathVariable Long bookingId,
                               @RequestHeader(USER_ID_HEADER) Long userId) {
@@ -37,14 +72,43 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getUserBookings(@RequestHeader(USER_ID_HEADER) Long userId,
-                                            @RequestParam(defaultValue = "ALL") BookingState state) {
-        return bookingService.getUserBookings(userId, state);
+    public ResponseEntity<List<BookingDto>> getUserBookings(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                            @RequestParam(defaultValue = "ALL") BookingState state,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limit) {
+        return BookingPages.toResponse(bookingService.getUserBookings(userId, state, cursor, limit));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getOwnerBookings(@RequestHeader(USER_ID_HEADER) Long userId,
-                                             @RequestParam(defaultValue = "ALL") BookingState state) {
-        return bookingService.getOwnerBookings(userId, state);
+    public ResponseEntity<List<BookingDto>> getOwnerBookings(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                             @RequestParam(defaultValue = "ALL") BookingState state,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer limit) {
+        return BookingPages.toResponse(bookingService.getOwnerBookings(userId, state, cursor, limit));
+    }
+
+    @GetMapping("/summary")
+    public BookingSummaryDto getUserSummary(@RequestHeader(USER_ID_HEADER) Long userId) {
+        return bookingService.getUserSummary(userId);
+    }
+
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getOwnerSummary(@RequestHeader(USER_ID_HEADER) Long userId) {
+        return bookingService.getOwnerSummary(userId);
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportOwnerBookings(
+            @RequestHeader(USER_ID_HEADER) Long userId,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(exportService.exportOwnerBookings(userId, format));
+    }
+
+    // События о бронях пользователя и бронях его вещей вместо опроса /bookings/{id} и /bookings/owner
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(USER_ID_HEADER) Long userId) {
+        return bookingEventStream.subscribe(userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Рассылает изменения броней по SSE автору брони и владельцу вещи после коммита.
+ * Соединения не держат потоков: у каждого подписчика ограниченная очередь событий, которую разбирает
+ * общий небольшой пул отправки. Подписчик, чья очередь переполнилась или чей сокет не принял событие
+ * за срок записи, отключается — клиент переподключится и дочитает пропущенное обычными запросами.
+ * Зависшую запись в сокет прервать нельзя: она держит поток записи, пока её не оборвёт таймаут записи
+ * контейнера (server.tomcat.connection-timeout), после чего поток закрывает соединение подписчика.
+ */
+@Slf4j
+@Component
+public class BookingEventStream {
+
+    private final UserRepository userRepository;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final long writeTimeoutMillis;
+    private final ExecutorService sender;
+    // Сама запись в сокет: зависшая запись держит поток отсюда, а не из пула отправки
+    private final ThreadPoolExecutor writer;
+    private final ConcurrentHashMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    public BookingEventStream(UserRepository userRepository,
+                              @Value("${shareit.bookings.stream.timeout-ms:1800000}") long timeoutMillis,
+                              @Value("${shareit.bookings.stream.buffer-size:64}") int bufferSize,
+                              @Value("${shareit.bookings.stream.sender-threads:4}") int senderThreads,
+                              @Value("${shareit.bookings.stream.writer-threads:16}") int writerThreads,
+                              @Value("${shareit.bookings.stream.write-timeout-ms:5000}") long writeTimeoutMillis) {
+        this.userRepository = userRepository;
+        this.timeoutMillis = timeoutMillis;
+        this.bufferSize = bufferSize;
+        this.writeTimeoutMillis = writeTimeoutMillis;
+        this.sender = Executors.newFixedThreadPool(senderThreads, daemonThreads("booking-stream-"));
+        // Каждый поток отправки ждёт не больше одной записи, поэтому очереди хватает по месту на поток отправки.
+        // Если потоки записи заняты зависшими клиентами, лишняя запись отклоняется и её подписчик отключается
+        this.writer = new ThreadPoolExecutor(writerThreads, writerThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(senderThreads), daemonThreads("booking-stream-writer-"));
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException(String.format("User with id %d not found", userId));
+        }
+        Subscriber subscriber = new Subscriber(userId, createEmitter(timeoutMillis), bufferSize);
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        String type = event.getPreviousStatus() == null ? "BOOKING_CREATED" : "BOOKING_" + event.getStatus();
+        push(event.getBookerId(), type, event);
+        if (!event.getOwnerId().equals(event.getBookerId())) {
+            push(event.getOwnerId(), type, event);
+        }
+    }
+
+    // Комментарий держит соединение открытым за прокси и вовремя обнаруживает отключившихся клиентов
+    @Scheduled(fixedDelayString = "${shareit.bookings.stream.heartbeat-ms:30000}")
+    public void heartbeat() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber ->
+                subscriber.offer(SseEmitter.event().comment("heartbeat"))));
+    }
+
+    int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    SseEmitter createEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        writer.shutdownNow();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber ->
+                subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    private void push(Long userId, String type, BookingStatusChangedEvent event) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers != null) {
+            userSubscribers.forEach(subscriber -> subscriber.offer(SseEmitter.event()
+                    .name(type)
+                    .data(event, MediaType.APPLICATION_JSON)));
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private final class Subscriber {
+        final Long userId;
+        final SseEmitter emitter;
+        final Queue<SseEmitter.SseEventBuilder> queue;
+        // Очередь подписчика разбирает не больше одной задачи, так события уходят по порядку.
+        // У отключённого подписчика флаг остаётся поднятым, чтобы новых записей не было
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closing;
+
+        Subscriber(Long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (!queue.offer(event)) {
+                log.debug("Booking stream of user {} fell behind, disconnecting", userId);
+                remove(this);
+                queue.clear();
+                closing = true;
+                // Идущая запись держит монитор эмиттера: тогда соединение закроет разбор очереди после неё
+                if (draining.compareAndSet(false, true)) {
+                    emitter.complete();
+                }
+                return;
+            }
+            scheduleDrain();
+        }
+
+        void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closing && (event = queue.poll()) != null) {
+                    send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Клиент отключился или поток уже завершён
+                remove(this);
+                queue.clear();
+                return;
+            } catch (RejectedExecutionException e) {
+                // Записи в сокет не идёт, поэтому соединение можно закрыть отсюда
+                log.debug("No writer thread for booking stream of user {}, disconnecting", userId);
+                remove(this);
+                queue.clear();
+                emitter.complete();
+                return;
+            } catch (TimeoutException e) {
+                // Соединение закроет поток записи, когда запись оборвётся
+                log.debug("Booking stream of user {} did not accept an event in {} ms, disconnecting",
+                        userId, writeTimeoutMillis);
+                return;
+            }
+            draining.set(false);
+            if (closing) {
+                if (draining.compareAndSet(false, true)) {
+                    emitter.complete();
+                }
+            } else if (!queue.isEmpty()) {
+                // Событие могло прийти между последним poll и сбросом флага
+                scheduleDrain();
+            }
+        }
+
+        // Запись медленному клиенту блокируется на сокете; поток отправки ждёт её не дольше срока записи.
+        // Пока запись идёт, она держит монитор эмиттера, и закрыть соединение из потока отправки нельзя —
+        // он встал бы в ту же очередь. Закрывает соединение тот, кто вторым отметит исход: запись или срок
+        void send(SseEmitter.SseEventBuilder event) throws IOException, TimeoutException {
+            AtomicBoolean settled = new AtomicBoolean();
+            Future<?> write = writer.submit(() -> {
+                try {
+                    // Срок вышел, пока запись ждала потока, — писать уже некому
+                    if (!settled.get()) {
+                        emitter.send(event);
+                    }
+                } finally {
+                    if (!settled.compareAndSet(false, true)) {
+                        closeAbandoned();
+                    }
+                }
+                return null;
+            });
+            try {
+                write.get(writeTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                remove(this);
+                queue.clear();
+                if (!settled.compareAndSet(false, true)) {
+                    closeAbandoned();
+                }
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending booking event", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException ioException) {
+                    throw ioException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        void closeAbandoned() {
+            emitter.completeWithError(new TimeoutException(
+                    String.format("Booking event was not written in %d ms", writeTimeoutMillis)));
+        }
+    }
+}
\ No newline at end of file
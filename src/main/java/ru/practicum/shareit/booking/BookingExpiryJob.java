@@ -0,0 +1,107 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Отклоняет брони, которые так и остались в WAITING после наступления start.
+ * Работает пачками: каждая пачка — отдельная короткая транзакция из выборки с SKIP LOCKED, загрузки
+ * для событий и одного UPDATE, поэтому блокировки держатся недолго и не пересекаются с approve.
+ * Число пачек за запуск ограничено, остаток разбирается следующими запусками.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.bookings.expiry.enabled", havingValue = "true")
+public class BookingExpiryJob {
+
+    static final int MAX_CHUNK_SIZE = 1000;
+
+    private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final Counter expiredCounter;
+    private final Counter chunkCounter;
+    private final Counter failureCounter;
+    private final Timer runTimer;
+
+    public BookingExpiryJob(BookingRepository bookingRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit.bookings.expiry.chunk-size:500}") int chunkSize,
+                            @Value("${shareit.bookings.expiry.max-chunks-per-run:100}") int maxChunksPerRun) {
+        this.bookingRepository = bookingRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, Math.min(chunkSize, MAX_CHUNK_SIZE));
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.expiredCounter = meterRegistry.counter("shareit.bookings.expiry.expired");
+        this.chunkCounter = meterRegistry.counter("shareit.bookings.expiry.chunks");
+        this.failureCounter = meterRegistry.counter("shareit.bookings.expiry.failures");
+        this.runTimer = meterRegistry.timer("shareit.bookings.expiry.run");
+    }
+
+    @Scheduled(initialDelayString = "${shareit.bookings.expiry.initial-delay-ms:60000}",
+            fixedDelayString = "${shareit.bookings.expiry.delay-ms:60000}")
+    public void run() {
+        try {
+            int expired = runTimer.record(() -> expire(LocalDateTime.now()));
+            if (expired > 0) {
+                log.info("Expired {} bookings left in WAITING after their start", expired);
+            }
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            log.warn("Booking expiry failed, will retry on next run", e);
+        }
+    }
+
+    int expire(LocalDateTime now) {
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            int expired = expireChunk(now);
+            total += expired;
+            // Неполная пачка — просроченных больше нет, кроме занятых approve прямо сейчас
+            if (expired < chunkSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    int expireChunk(LocalDateTime now) {
+        Integer expired = transactionTemplate.execute(status -> {
+            List<Long> ids = bookingRepository.lockExpiredWaitingIds(now, chunkSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            // Условие на start повторяет выборку и отсекает секции будущих месяцев
+            List<Booking> bookings = bookingRepository.findByIdInAndStartBefore(ids, now);
+            // Строки заблокированы выборкой, поэтому UPDATE изменит их все
+            int updated = bookingRepository.updateStatusStartingBefore(ids, now,
+                    BookingStatus.WAITING, BookingStatus.REJECTED);
+            bookings.forEach(booking -> eventPublisher.publishEvent(
+                    BookingStatusChangedEvent.of(booking, BookingStatus.WAITING, BookingStatus.REJECTED)));
+            return updated;
+        });
+        int result = expired == null ? 0 : expired;
+        if (result > 0) {
+            chunkCounter.increment();
+            expiredCounter.increment(result);
+        }
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.item.dto.FreeWindowDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Индекс подтверждённых броней в памяти: для каждой вещи отсортированные массивы начал и концов.
+ * Вещь загружается из БД при первом обращении, дальше индекс обновляется событиями BookingServiceImpl.
+ * Число вещей в индексе ограничено; давно не запрашивавшиеся вытесняются и при следующем обращении читаются заново.
+ */
+@Component
+public class BookingIntervalIndex {
+
+    private final BookingRepository bookingRepository;
+    private final BoundedCache<Long, ItemIntervals> intervalsByItem;
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.bookings.interval-index.max-items:10000}") int maxItems) {
+        this.bookingRepository = bookingRepository;
+        this.intervalsByItem = new BoundedCache<>(maxItems);
+    }
+
+    /**
+     * Свободные окна вещи внутри [from, to), упорядоченные по времени.
+     */
+    public List<FreeWindowDto> freeWindows(Long itemId, LocalDateTime from, LocalDateTime to) {
+        ItemIntervals intervals = intervalsByItem.computeIfAbsent(itemId, this::load);
+        long fromMicros = toMicros(from);
+        long toMicros = toMicros(to);
+        List<FreeWindowDto> windows = new ArrayList<>();
+
+        long cursor = fromMicros;
+        for (int i = intervals.firstEndingAfter(fromMicros); i < intervals.size(); i++) {
+            long start = intervals.starts[i];
+            if (start >= toMicros) {
+                break;
+            }
+            if (start > cursor) {
+                windows.add(new FreeWindowDto(toDateTime(cursor, fromMicros, from), fromMicros(start)));
+            }
+            cursor = Math.max(cursor, intervals.ends[i]);
+        }
+        if (cursor < toMicros) {
+            windows.add(new FreeWindowDto(toDateTime(cursor, fromMicros, from), to));
+        }
+        return windows;
+    }
+
+    @TransactionalEventListener
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        if (event.getStatus() != BookingStatus.APPROVED) {
+            return;
+        }
+        // Незагруженные вещи не трогаем: при первом обращении они прочитаются из БД уже с этой бронью
+        intervalsByItem.computeIfPresent(event.getItemId(), (itemId, intervals) -> intervals.with(
+                event.getBookingId(), toMicros(event.getStart()), toMicros(event.getEnd())));
+    }
+
+    private ItemIntervals load(Long itemId) {
+        List<Booking> approved = bookingRepository.findByItemIdAndStatusOrderByStartAsc(
+                itemId, BookingStatus.APPROVED);
+        long[] ids = new long[approved.size()];
+        long[] starts = new long[approved.size()];
+        long[] ends = new long[approved.size()];
+        for (int i = 0; i < approved.size(); i++) {
+            Booking booking = approved.get(i);
+            ids[i] = booking.getId();
+            starts[i] = toMicros(booking.getStart());
+            ends[i] = toMicros(booking.getEnd());
+        }
+        return new ItemIntervals(ids, starts, ends);
+    }
+
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    // Границу запроса возвращаем как есть, чтобы не терять наносекунды при переводе в микросекунды
+    private static LocalDateTime toDateTime(long micros, long fromMicros, LocalDateTime from) {
+        return micros == fromMicros ? from : fromMicros(micros);
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Неизменяемый снимок интервалов вещи. Подтверждённые брони не пересекаются (это гарантирует БД),
+     * поэтому при сортировке по началу концы тоже идут по возрастанию.
+     */
+    private static final class ItemIntervals {
+        private final long[] ids;
+        private final long[] starts;
+        private final long[] ends;
+
+        private ItemIntervals(long[] ids, long[] starts, long[] ends) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        int size() {
+            return starts.length;
+        }
+
+        int firstEndingAfter(long micros) {
+            int low = 0;
+            int high = ends.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ends[mid] <= micros) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        ItemIntervals with(long id, long start, long end) {
+            for (long existing : ids) {
+                if (existing == id) {
+                    return this;
+                }
+            }
+            int position = Arrays.binarySearch(starts, start);
+            position = position < 0 ? -position - 1 : position;
+            return new ItemIntervals(insert(ids, position, id), insert(starts, position, start),
+                    insert(ends, position, end));
+        }
+
+        private static long[] insert(long[] source, int position, long value) {
+            long[] result = new long[source.length + 1];
+            System.arraycopy(source, 0, result, 0, position);
+            result[position] = value;
+            System.arraycopy(source, position, result, position + 1, source.length - position);
+            return result;
+        }
+    }
+}
\ No newline at end of file
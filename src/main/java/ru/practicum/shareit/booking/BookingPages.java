@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+
+import java.util.List;
+
+/**
+ * Ответ со страницей бронирований для /bookings и /items/{itemId}/bookings: тело остаётся массивом,
+ * курсор следующей страницы передаётся в заголовке.
+ */
+public final class BookingPages {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private BookingPages() {
+    }
+
+    public static ResponseEntity<List<BookingDto>> toResponse(BookingPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
+    }
+}
\ No newline at end of file
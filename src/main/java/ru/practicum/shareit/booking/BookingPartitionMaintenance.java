@@ -0,0 +1,61 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Обслуживает месячные секции bookings в PostgreSQL: заранее создаёт секции будущих месяцев
+ * и переносит в архив секции, все брони которых давно закончились. Сама работа с секциями
+ * выполняется функциями из schema-postgresql.sql.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.bookings.partitions.enabled", havingValue = "true")
+public class BookingPartitionMaintenance {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int archiveAfterMonths;
+
+    public BookingPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                       @Value("${shareit.bookings.partitions.months-ahead:12}") int monthsAhead,
+                                       @Value("${shareit.bookings.partitions.archive-after-months:24}")
+                                       int archiveAfterMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.archiveAfterMonths = archiveAfterMonths;
+    }
+
+    @Scheduled(cron = "${shareit.bookings.partitions.cron:0 15 3 * * *}")
+    public void maintain() {
+        LocalDate today = LocalDate.now();
+        try {
+            createFuturePartitions(today);
+            archiveOldPartitions(today);
+        } catch (DataAccessException e) {
+            log.warn("Bookings partition maintenance failed, will retry on next run", e);
+        }
+    }
+
+    void createFuturePartitions(LocalDate today) {
+        jdbcTemplate.queryForList("select create_bookings_partition((? + make_interval(months => m))::date) " +
+                "from generate_series(0, ?) as m", today.withDayOfMonth(1), monthsAhead);
+    }
+
+    int archiveOldPartitions(LocalDate today) {
+        LocalDate cutoff = today.withDayOfMonth(1).minusMonths(archiveAfterMonths);
+        Integer archived = jdbcTemplate.queryForObject("select archive_bookings_partitions(?)",
+                Integer.class, cutoff);
+        if (archived != null && archived > 0) {
+            log.info("Archived {} bookings partitions that ended before {}", archived, cutoff);
+        }
+        return archived == null ? 0 : archived;
+    }
+}
\ No newline at end of file
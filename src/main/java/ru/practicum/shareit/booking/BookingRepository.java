@@ -1,46 +1,192 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.reminder.BookingTimes;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findByBookerId(Long bookerId, Sort sort);
-
-    List<Booking> findByBookerIdAndStartBeforeAndEndAfter(Long bookerId, LocalDateTime now1,
-                                                          LocalDateTime now2, Sort sort);
-
-    List<Booking> findByBookerIdAndEndBefore(Long bookerId, LocalDateTime now, Sort sort);
-
-    List<Booking> findByBookerIdAndStartAfter(Long bookerId, LocalDateTime now, Sort sort);
-
-    List<Booking> findByBookerIdAndStatus(Long bookerId, BookingStatus status, Sort sort);
-
-    @Query("select b from Booking b where b.item.owner.id = ?1")
-    List<Booking> findByOwnerId(Long ownerId, Sort sort);
-
-    @Query("select b from Booking b where b.item.owner.id = ?1 and b.start < ?2 and b.end > ?2")
-    List<Booking> findByOwnerIdCurrent(Long ownerId, LocalDateTime now, Sort sort);
-
-    @Query("select b from Booking b where b.item.owner.id = ?1 and b.end < ?2")
-    List<Booking> findByOwnerIdPast(Long ownerId, LocalDateTime now, Sort sort);
-
-    @Query("select b from Booking b where b.item.owner.id = ?1 and b.start > ?2")
-    List<Booking> findByOwnerIdFuture(Long ownerId, LocalDateTime now, Sort sort);
-
-    @Query("select b from Booking b where b.item.owner.id = ?1 and b.status = ?2")
-    List<Booking> findByOwnerIdAndStatus(Long ownerId, BookingStatus status, Sort sort);
-
-    Optional<Booking> findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(Long itemId, LocalDateTime now,
-                                                                               BookingStatus status);
-
-    Optional<Booking> findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(Long itemId, LocalDateTime now,
-                                                                             BookingStatus status);
+    // item и booker нужны для BookingDto, поэтому подтягиваем их тем же запросом
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findDetailedById(Long id);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBookerId(Long bookerId, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBookerIdAndStartBeforeAndEndAfter(Long bookerId, LocalDateTime now1, LocalDateTime now2,
+                                                            ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBookerIdAndEndBefore(Long bookerId, LocalDateTime now,
+                                               ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBookerIdAndStartAfter(Long bookerId, LocalDateTime now,
+                                                ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBookerIdAndStatus(Long bookerId, BookingStatus status,
+                                            ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemOwnerId(Long ownerId, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemOwnerIdAndStartBeforeAndEndAfter(Long ownerId, LocalDateTime now1, LocalDateTime now2,
+                                                               ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemOwnerIdAndEndBefore(Long ownerId, LocalDateTime now,
+                                                  ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemOwnerIdAndStartAfter(Long ownerId, LocalDateTime now,
+                                                   ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemOwnerIdAndStatus(Long ownerId, BookingStatus status,
+                                               ScrollPosition position, Sort sort, Limit limit);
+
+    // Брони одной вещи идут по индексу (item_id, start_date desc, id): страница читается без обхода всех броней владельца
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemId(Long itemId, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemIdAndStartBeforeAndEndAfter(Long itemId, LocalDateTime now1, LocalDateTime now2,
+                                                          ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemIdAndEndBefore(Long itemId, LocalDateTime now,
+                                             ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemIdAndStartAfter(Long itemId, LocalDateTime now,
+                                              ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemIdAndStatus(Long itemId, BookingStatus status,
+                                          ScrollPosition position, Sort sort, Limit limit);
+
+    // Поиск только по id на секционированной bookings проверяет индекс каждой секции (см. schema-postgresql.sql);
+    // там, где начало броней известно, используются варианты с условием на start
+    @EntityGraph(attributePaths = {"item"})
+    List<Booking> findByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"item"})
+    List<Booking> findByIdInAndStartBefore(Collection<Long> ids, LocalDateTime before);
+
+    List<Booking> findByItemIdInAndStatusAndStartBeforeAndEndAfter(Collection<Long> itemIds, BookingStatus status,
+                                                                   LocalDateTime end, LocalDateTime start);
+
+    // Один UPDATE на всю пачку; условие по статусу и владельцу повторяет проверки сервиса
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status " +
+            "where b.id in :ids and b.status = :expected " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = :ownerId)")
+    int updateStatus(Collection<Long> ids, Long ownerId, BookingStatus expected, BookingStatus status);
+
+    // То же для пачки уже прочитанных броней: границы start отсекают секции, в которых их нет
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status " +
+            "where b.id in :ids and b.start between :startFrom and :startTo and b.status = :expected " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = :ownerId)")
+    int updateStatusStartingBetween(Collection<Long> ids, LocalDateTime startFrom, LocalDateTime startTo,
+                                    Long ownerId, BookingStatus expected, BookingStatus status);
+
+    // Для фонового истечения: без проверки владельца, условие по статусу защищает от гонки с подтверждением
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status " +
+            "where b.id in :ids and b.start < :before and b.status = :expected")
+    int updateStatusStartingBefore(Collection<Long> ids, LocalDateTime before,
+                                   BookingStatus expected, BookingStatus status);
+
+    // Ожидающие брони, чьё начало прошло. Строки, заблокированные идущим подтверждением, пропускаются:
+    // задача истечения не ждёт approve и не заставляет его ждать дольше своей короткой транзакции
+    @Query(nativeQuery = true, value = "select id from bookings where status = 'WAITING' and start_date < :now " +
+            "order by start_date limit :limit for update skip locked")
+    List<Long> lockExpiredWaitingIds(LocalDateTime now, int limit);
+
+    // Условия те же, что у выборок по BookingState, но все счётчики считаются за один проход
+    String SUMMARY_SELECT = "select new ru.practicum.shareit.booking.dto.BookingSummaryDto(" +
+            "count(b), " +
+            "coalesce(sum(case when b.start < :now and b.end > :now then 1L else 0L end), 0L), " +
+            "coalesce(sum(case when b.end < :now then 1L else 0L end), 0L), " +
+            "coalesce(sum(case when b.start > :now then 1L else 0L end), 0L), " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.BookingStatus.WAITING " +
+            "then 1L else 0L end), 0L), " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.BookingStatus.REJECTED " +
+            "then 1L else 0L end), 0L)) " +
+            "from Booking b ";
+
+    @Query(SUMMARY_SELECT + "where b.booker.id = :bookerId")
+    BookingSummaryDto summarizeByBookerId(Long bookerId, LocalDateTime now);
+
+    @Query(SUMMARY_SELECT + "where b.item.owner.id = :ownerId")
+    BookingSummaryDto summarizeByItemOwnerId(Long ownerId, LocalDateTime now);
+
+    // Брони, изменённые после since и не позже until, которые пользователь видит как автор или как владелец вещи
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b " +
+            "where b.changeSeq > :since and b.changeSeq <= :until " +
+            "and (b.booker.id = :userId or b.item.owner.id = :userId) " +
+            "order by b.changeSeq")
+    List<Booking> findChangedForUser(Long userId, Long since, Long until, Limit limit);
+
+    // Для потоковой выгрузки: строки читаются курсором пачками, сущности не отслеживаются на изменения
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Booking b join fetch b.item i " +
+            "where i.owner.id = :ownerId order by b.start desc, b.id desc")
+    Stream<Booking> streamByItemOwnerId(Long ownerId);
+
+    // Для напоминаний: брони, начало или окончание которых попадает в [from, to), без загрузки сущностей
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.reminder.BookingTimes(b.id, b.item.id, b.booker.id, b.item.owner.id, " +
+            "b.start, b.end) from Booking b " +
+            "where b.status = :status and ((b.start >= :from and b.start < :to) or (b.end >= :from and b.end < :to))")
+    Stream<BookingTimes> streamTimesByStatusBetween(BookingStatus status, LocalDateTime from, LocalDateTime to);
+
+    List<Booking> findByItemIdAndStatusOrderByStartAsc(Long itemId, BookingStatus status);
+
+    List<Booking> findByItemIdAndStatusAndStartBeforeAndEndAfter(Long itemId, BookingStatus status,
+                                                                 LocalDateTime end, LocalDateTime start);
+
+    // Последняя начавшаяся и ближайшая будущая подтверждённые брони каждой вещи за один проход:
+    // строки делятся на «до now» и «после now» внутри вещи, и из каждой группы берётся первая по удалённости от now
+    String LAST_AND_NEXT_SELECT = "select id, start_date, end_date, item_id, booker_id, status, change_seq from (" +
+            "select b.*, row_number() over (" +
+            "partition by b.item_id, case when b.start_date < :now then 0 else 1 end " +
+            "order by case when b.start_date < :now then b.start_date end desc, b.start_date, b.id) as rn " +
+            "from bookings b ";
+
+    String LAST_AND_NEXT_FILTER = "and b.status = 'APPROVED' and b.start_date <> :now) ranked where rn = 1";
+
+    @Query(nativeQuery = true, value = LAST_AND_NEXT_SELECT +
+            "join items i on i.id = b.item_id where i.owner_id = :ownerId " + LAST_AND_NEXT_FILTER)
+    List<Booking> findLastAndNextApprovedByItemOwnerId(Long ownerId, LocalDateTime now);
+
+    @Query(nativeQuery = true, value = LAST_AND_NEXT_SELECT +
+            "where b.item_id = :itemId " + LAST_AND_NEXT_FILTER)
+    List<Booking> findLastAndNextApprovedByItemId(Long itemId, LocalDateTime now);
 
     boolean existsByItemIdAndBookerIdAndEndBeforeAndStatus(Long itemId, Long bookerId, LocalDateTime now,
                                                            BookingStatus status);
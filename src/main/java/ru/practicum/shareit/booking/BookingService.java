@@ -1,19 +1,41 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingBatchRequestDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingRecurringRequestDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.bulk.dto.BulkResultDto;
 
 import java.util.List;
 
 public interface BookingService {
     BookingDto create(BookingRequestDto requestDto, Long bookerId);
 
+    // Все вещи бронируются на один период в одной транзакции: либо создаются все брони, либо ни одной
+    List<BookingDto> createBatch(BookingBatchRequestDto requestDto, Long bookerId);
+
+    // Серия броней одной вещи по правилу повторения; при пересечении любого повторения
+    // с подтверждённой бронью не создаётся ни одна
+    List<BookingDto> createRecurring(BookingRecurringRequestDto requestDto, Long bookerId);
+
     BookingDto approve(Long bookingId, Long userId, boolean approved);
 
+    // Результат возвращается по каждому id в порядке запроса, повторы id схлопываются
+    List<BulkResultDto> approveAll(Long ownerId, List<Long> bookingIds, boolean approved);
+
     BookingDto getById(Long bookingId, Long userId);
 
-    List<BookingDto> getUserBookings(Long userId, BookingState state);
+    BookingPageDto getUserBookings(Long userId, BookingState state, String cursor, Integer limit);
+
+    BookingPageDto getOwnerBookings(Long ownerId, BookingState state, String cursor, Integer limit);
+
+    // Брони одной вещи; доступно только её владельцу
+    BookingPageDto getItemBookings(Long ownerId, Long itemId, BookingState state, String cursor, Integer limit);
+
+    BookingSummaryDto getUserSummary(Long userId);
 
-    List<BookingDto> getOwnerBookings(Long ownerId, BookingState state);
+    BookingSummaryDto getOwnerSummary(Long ownerId);
 }
\ No newline at end of file
@@ -1,12 +1,26 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchRequestDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingRecurrenceDto;
+import ru.practicum.shareit.booking.dto.BookingRecurringRequestDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.bulk.dto.BulkOutcome;
+import ru.practicum.shareit.bulk.dto.BulkResultDto;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ConstraintViolations;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
@@ -14,8 +28,10 @@ import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,8 +43,14 @@ public class BookingServiceImpl implements BookingService {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingMapper bookingMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingJdbcWriter bookingJdbcWriter;
 
-    private static final Sort SORT_BY_START_DESC = Sort.by(Sort.Direction.DESC, "start");
+    // id в сортировке делает порядок строгим, что нужно для keyset-пагинации
+    private static final Sort SORT_BY_START_DESC = Sort.by(Sort.Direction.DESC, "start", "id");
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_OCCURRENCES = 366;
 
     @Override
     @Transactional
@@ -57,13 +79,118 @@ public class BookingServiceImpl implements BookingService {
 
         Booking booking = bookingMapper.toBooking(requestDto, item, booker);
         booking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingStatusChangedEvent.of(booking, null));
         return bookingMapper.toBookingDto(booking);
     }
 
+    @Override
+    @Transactional
+    public List<BookingDto> createBatch(BookingBatchRequestDto requestDto, Long bookerId) {
+        if (!requestDto.getStart().isBefore(requestDto.getEnd())) {
+            throw new ValidationException("Start date must be before end date");
+        }
+
+        User booker = userRepository.findById(bookerId)
+                .orElseThrow(() -> new NotFoundException(
+                        String.format("User with id %d not found", bookerId)));
+
+        // Все вещи читаются одним запросом и блокируются в порядке id, поэтому две корзины
+        // с общими вещами не возьмут блокировки навстречу друг другу
+        Set<Long> itemIds = new TreeSet<>(requestDto.getItemIds());
+        List<Item> items = itemRepository.findForUpdateByIdInOrderByIdAsc(itemIds);
+        if (items.size() != itemIds.size()) {
+            Set<Long> missing = new TreeSet<>(itemIds);
+            items.forEach(item -> missing.remove(item.getId()));
+            throw new NotFoundException(String.format("Items with ids %s not found", missing));
+        }
+        for (Item item : items) {
+            if (!item.getAvailable()) {
+                throw new ValidationException(String.format("Item %d is not available for booking", item.getId()));
+            }
+            if (item.getOwner().getId().equals(bookerId)) {
+                throw new NotFoundException("Owner cannot book own item");
+            }
+        }
+
+        List<Booking> bookings = bookingRepository.saveAll(items.stream()
+                .map(item -> Booking.builder()
+                        .start(requestDto.getStart())
+                        .end(requestDto.getEnd())
+                        .item(item)
+                        .booker(booker)
+                        .status(BookingStatus.WAITING)
+                        .build())
+                .collect(Collectors.toList()));
+        bookings.forEach(booking -> eventPublisher.publishEvent(BookingStatusChangedEvent.of(booking, null)));
+        return bookings.stream()
+                .map(bookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public List<BookingDto> createRecurring(BookingRecurringRequestDto requestDto, Long bookerId) {
+        if (!requestDto.getStart().isBefore(requestDto.getEnd())) {
+            throw new ValidationException("Start date must be before end date");
+        }
+        List<LocalDateTime> starts = expand(requestDto.getStart(), requestDto.getEnd(), requestDto.getRecurrence());
+
+        User booker = userRepository.findById(bookerId)
+                .orElseThrow(() -> new NotFoundException(
+                        String.format("User with id %d not found", bookerId)));
+
+        Item item = itemRepository.findById(requestDto.getItemId())
+                .orElseThrow(() -> new NotFoundException(
+                        String.format("Item with id %d not found", requestDto.getItemId())));
+
+        if (!item.getAvailable()) {
+            throw new ValidationException("Item is not available for booking");
+        }
+
+        if (item.getOwner().getId().equals(bookerId)) {
+            throw new NotFoundException("Owner cannot book own item");
+        }
+
+        Duration duration = Duration.between(requestDto.getStart(), requestDto.getEnd());
+        LocalDateTime from = starts.get(0);
+        LocalDateTime to = starts.get(starts.size() - 1).plus(duration);
+        // Все подтверждённые брони вещи на период серии одним запросом; они не пересекаются, поэтому start -> end
+        TreeMap<LocalDateTime, LocalDateTime> approved = new TreeMap<>();
+        bookingRepository.findByItemIdAndStatusAndStartBeforeAndEndAfter(item.getId(), BookingStatus.APPROVED, to, from)
+                .forEach(booking -> approved.put(booking.getStart(), booking.getEnd()));
+
+        List<LocalDateTime> conflicts = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>(starts.size());
+        for (LocalDateTime start : starts) {
+            LocalDateTime end = start.plus(duration);
+            Map.Entry<LocalDateTime, LocalDateTime> previous = approved.lowerEntry(end);
+            if (previous != null && previous.getValue().isAfter(start)) {
+                conflicts.add(start);
+            }
+            bookings.add(Booking.builder()
+                    .start(start)
+                    .end(end)
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        if (!conflicts.isEmpty()) {
+            throw new ConflictException(String.format(
+                    "Occurrences starting at %s overlap approved bookings of item %d", conflicts, item.getId()));
+        }
+
+        bookingJdbcWriter.insertAll(bookings);
+        bookings.forEach(booking -> eventPublisher.publishEvent(BookingStatusChangedEvent.of(booking, null)));
+        return bookings.stream()
+                .map(bookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+    }
+
     @Override
     @Transactional
     public BookingDto approve(Long bookingId, Long userId, boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findDetailedById(bookingId)
                 .orElseThrow(() -> new NotFoundException(
                         String.format("Booking with id %d not found", bookingId)));
 
@@ -75,13 +202,94 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException("Booking is not in WAITING state");
         }
 
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        // Переход выполняется одним условным UPDATE: из двух параллельных подтверждений строку изменит только одно.
+        // Пересечение подтверждённых броней проверяет ограничение БД, его нарушение переводим в 409
+        int updated;
+        try {
+            updated = bookingRepository.updateStatus(List.of(bookingId), userId, BookingStatus.WAITING, status);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.isApprovedBookingOverlap(e)) {
+                throw e;
+            }
+            throw new ConflictException(String.format(
+                    "Booking %d overlaps another approved booking of its item", bookingId));
+        }
+        if (updated == 0) {
+            // При чтении бронь ждала решения, но параллельный запрос успел сменить статус первым
+            throw new ConflictException(String.format(
+                    "Booking %d was approved or rejected concurrently", bookingId));
+        }
+
+        // UPDATE очистил контекст сохраняемости, прочитанная бронь отсоединена и изменение не запишет
+        booking.setStatus(status);
+        eventPublisher.publishEvent(BookingStatusChangedEvent.of(booking, BookingStatus.WAITING));
         return bookingMapper.toBookingDto(booking);
     }
 
+    @Override
+    @Transactional
+    public List<BulkResultDto> approveAll(Long ownerId, List<Long> bookingIds, boolean approved) {
+        Set<Long> ids = new LinkedHashSet<>(bookingIds);
+        Map<Long, Booking> bookings = bookingRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        Map<Long, BulkOutcome> outcomes = new LinkedHashMap<>();
+        List<Booking> candidates = new ArrayList<>();
+        for (Long id : ids) {
+            Booking booking = bookings.get(id);
+            if (booking == null) {
+                outcomes.put(id, BulkOutcome.NOT_FOUND);
+            } else if (!booking.getItem().getOwner().getId().equals(ownerId)) {
+                outcomes.put(id, BulkOutcome.FORBIDDEN);
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                outcomes.put(id, BulkOutcome.INVALID_STATE);
+            } else {
+                outcomes.put(id, BulkOutcome.UPDATED);
+                candidates.add(booking);
+            }
+        }
+
+        if (approved) {
+            List<Booking> overlapping = findOverlapping(candidates);
+            overlapping.forEach(booking -> outcomes.put(booking.getId(), BulkOutcome.CONFLICT));
+            candidates.removeAll(overlapping);
+        }
+
+        if (!candidates.isEmpty()) {
+            BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+            List<Long> candidateIds = candidates.stream().map(Booking::getId).collect(Collectors.toList());
+            // Начала броней уже известны: по ним UPDATE затрагивает только их секции
+            LocalDateTime startFrom = candidates.stream().map(Booking::getStart)
+                    .min(Comparator.naturalOrder()).orElseThrow();
+            LocalDateTime startTo = candidates.stream().map(Booking::getStart)
+                    .max(Comparator.naturalOrder()).orElseThrow();
+            int updated;
+            try {
+                updated = bookingRepository.updateStatusStartingBetween(candidateIds, startFrom, startTo, ownerId,
+                        BookingStatus.WAITING, status);
+            } catch (DataIntegrityViolationException e) {
+                if (!ConstraintViolations.isApprovedBookingOverlap(e)) {
+                    throw e;
+                }
+                throw new ConflictException("Bookings overlap other approved bookings of the same items");
+            }
+            // Между чтением и UPDATE бронь могли подтвердить или отклонить по одной; откатываем всю пачку
+            if (updated != candidates.size()) {
+                throw new ConflictException("Bookings were changed concurrently, retry the request");
+            }
+            candidates.forEach(booking -> eventPublisher.publishEvent(
+                    BookingStatusChangedEvent.of(booking, BookingStatus.WAITING, status)));
+        }
+
+        return outcomes.entrySet().stream()
+                .map(entry -> new BulkResultDto(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public BookingDto getById(Long bookingId, Long userId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findDetailedById(bookingId)
                 .orElseThrow(() -> new NotFoundException(
                         String.format("Booking with id %d not found", bookingId)));
 
@@ -95,81 +303,261 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getUserBookings(Long userId, BookingState state) {
+    public BookingPageDto getUserBookings(Long userId, BookingState state, String cursor, Integer limit) {
         userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException(
                         String.format("User with id %d not found", userId)));
 
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings;
+        return toPage(findByState(state, BookingCursor.decode(cursor), toLimit(cursor, limit), bookerQueries(userId)));
+    }
 
-        switch (state) {
-            case ALL:
-                bookings = bookingRepository.findByBookerId(userId, SORT_BY_START_DESC);
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(
-                        userId, now, now, SORT_BY_START_DESC);
-                break;
-            case PAST:
-                bookings = bookingRepository.findByBookerIdAndEndBefore(userId, now, SORT_BY_START_DESC);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findByBookerIdAndStartAfter(userId, now, SORT_BY_START_DESC);
-                break;
-            case WAITING:
-                bookings = bookingRepository.findByBookerIdAndStatus(
-                        userId, BookingStatus.WAITING, SORT_BY_START_DESC);
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findByBookerIdAndStatus(
-                        userId, BookingStatus.REJECTED, SORT_BY_START_DESC);
-                break;
-            default:
-                throw new IllegalArgumentException("Unsupported state: " + state);
+    @Override
+    public BookingPageDto getOwnerBookings(Long ownerId, BookingState state, String cursor, Integer limit) {
+        userRepository.findById(ownerId)
+                .orElseThrow(() -> new NotFoundException(
+                        String.format("User with id %d not found", ownerId)));
+
+        return toPage(findByState(state, BookingCursor.decode(cursor), toLimit(cursor, limit), ownerQueries(ownerId)));
+    }
+
+    @Override
+    public BookingPageDto getItemBookings(Long ownerId, Long itemId, BookingState state, String cursor, Integer limit) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException(
+                        String.format("Item with id %d not found", itemId)));
+        if (!item.getOwner().getId().equals(ownerId)) {
+            throw new NotFoundException("User is not the owner of the item");
         }
 
-        return bookings.stream()
-                .map(bookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        return toPage(findByState(state, BookingCursor.decode(cursor), toLimit(cursor, limit), itemQueries(itemId)));
     }
 
     @Override
-    public List<BookingDto> getOwnerBookings(Long ownerId, BookingState state) {
+    public BookingSummaryDto getUserSummary(Long userId) {
+        userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException(
+                        String.format("User with id %d not found", userId)));
+
+        return bookingRepository.summarizeByBookerId(userId, LocalDateTime.now());
+    }
+
+    @Override
+    public BookingSummaryDto getOwnerSummary(Long ownerId) {
         userRepository.findById(ownerId)
                 .orElseThrow(() -> new NotFoundException(
                         String.format("User with id %d not found", ownerId)));
 
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings;
+        return bookingRepository.summarizeByItemOwnerId(ownerId, LocalDateTime.now());
+    }
 
-        switch (state) {
-            case ALL:
-                bookings = bookingRepository.findByOwnerId(ownerId, SORT_BY_START_DESC);
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findByOwnerIdCurrent(ownerId, now, SORT_BY_START_DESC);
-                break;
-            case PAST:
-                bookings = bookingRepository.findByOwnerIdPast(ownerId, now, SORT_BY_START_DESC);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findByOwnerIdFuture(ownerId, now, SORT_BY_START_DESC);
-                break;
-            case WAITING:
-                bookings = bookingRepository.findByOwnerIdAndStatus(
-                        ownerId, BookingStatus.WAITING, SORT_BY_START_DESC);
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findByOwnerIdAndStatus(
-                        ownerId, BookingStatus.REJECTED, SORT_BY_START_DESC);
+    // Брони, которые нельзя подтвердить: пересекаются с уже подтверждёнными или с более ранними бронями той же пачки
+    private List<Booking> findOverlapping(List<Booking> candidates) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> itemIds = candidates.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toCollection(TreeSet::new));
+        // Блокировка вещей не даёт параллельной массовой операции подтвердить пересекающуюся бронь
+        // между этой проверкой и UPDATE
+        itemRepository.findForUpdateByIdInOrderByIdAsc(itemIds);
+
+        LocalDateTime from = candidates.stream().map(Booking::getStart).min(Comparator.naturalOrder()).get();
+        LocalDateTime to = candidates.stream().map(Booking::getEnd).max(Comparator.naturalOrder()).get();
+        // Подтверждённые брони одной вещи не пересекаются, поэтому их можно хранить как start -> end
+        Map<Long, TreeMap<LocalDateTime, LocalDateTime>> approvedByItem = new HashMap<>();
+        for (Booking booking : bookingRepository.findByItemIdInAndStatusAndStartBeforeAndEndAfter(
+                itemIds, BookingStatus.APPROVED, to, from)) {
+            approvedByItem.computeIfAbsent(booking.getItem().getId(), id -> new TreeMap<>())
+                    .put(booking.getStart(), booking.getEnd());
+        }
+
+        List<Booking> overlapping = new ArrayList<>();
+        candidates.stream()
+                .sorted(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId))
+                .forEach(booking -> {
+                    TreeMap<LocalDateTime, LocalDateTime> approved =
+                            approvedByItem.computeIfAbsent(booking.getItem().getId(), id -> new TreeMap<>());
+                    Map.Entry<LocalDateTime, LocalDateTime> before = approved.floorEntry(booking.getStart());
+                    Map.Entry<LocalDateTime, LocalDateTime> after = approved.ceilingEntry(booking.getStart());
+                    if ((before != null && before.getValue().isAfter(booking.getStart()))
+                            || (after != null && after.getKey().isBefore(booking.getEnd()))) {
+                        overlapping.add(booking);
+                    } else {
+                        approved.put(booking.getStart(), booking.getEnd());
+                    }
+                });
+        return overlapping;
+    }
+
+    // Начала повторений серии; повторения не должны пересекаться друг с другом
+    private List<LocalDateTime> expand(LocalDateTime start, LocalDateTime end, BookingRecurrenceDto recurrence) {
+        if ((recurrence.getCount() == null) == (recurrence.getUntil() == null)) {
+            throw new ValidationException("Recurrence must have either count or until");
+        }
+        if (recurrence.getFrequency().shift(start, 1).isBefore(end)) {
+            throw new ValidationException("Booking is longer than the recurrence period");
+        }
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (long i = 0; ; i++) {
+            LocalDateTime next = recurrence.getFrequency().shift(start, i);
+            if (recurrence.getCount() != null ? i >= recurrence.getCount() : next.isAfter(recurrence.getUntil())) {
                 break;
-            default:
-                throw new IllegalArgumentException("Unsupported state: " + state);
+            }
+            if (starts.size() == MAX_OCCURRENCES) {
+                throw new ValidationException(
+                        String.format("Recurrence must not produce more than %d bookings", MAX_OCCURRENCES));
+            }
+            starts.add(next);
         }
+        if (starts.isEmpty()) {
+            throw new ValidationException("Recurrence produces no bookings");
+        }
+        return starts;
+    }
 
-        return bookings.stream()
+    // Единственное место, где состояние из запроса превращается в выборку
+    private Window<Booking> findByState(BookingState state, ScrollPosition position, Limit limit,
+                                        BookingQueries queries) {
+        LocalDateTime now = LocalDateTime.now();
+        return switch (state) {
+            case ALL -> queries.all(position, limit);
+            case CURRENT -> queries.current(now, position, limit);
+            case PAST -> queries.past(now, position, limit);
+            case FUTURE -> queries.future(now, position, limit);
+            case WAITING -> queries.byStatus(BookingStatus.WAITING, position, limit);
+            case REJECTED -> queries.byStatus(BookingStatus.REJECTED, position, limit);
+        };
+    }
+
+    private BookingQueries bookerQueries(Long userId) {
+        return new BookingQueries() {
+            @Override
+            public Window<Booking> all(ScrollPosition position, Limit limit) {
+                return bookingRepository.findByBookerId(userId, position, SORT_BY_START_DESC, limit);
+            }
+
+            @Override
+            public Window<Booking> current(LocalDateTime now, ScrollPosition position, Limit limit) {
+                return bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(
+                        userId, now, now, position, SORT_BY_START_DESC, limit);
+            }
+
+            @Override
+            public Window<Booking> past(LocalDateTime now, ScrollPosition position, Limit limit) {
+                return bookingRepository.findByBookerIdAndEndBefore(userId, now, position, SORT_BY_START_DESC, limit);
+            }
+
+            @Override
+            public Window<Booking> future(LocalDateTime now, ScrollPosition position, Limit limit) {
+                return bookingRepository.findByBookerIdAndStartAfter(userId, now, position, SORT_BY_START_DESC, limit);
+            }
+
+            @Override
+            public Window<Booking> byStatus(BookingStatus status, ScrollPosition position, Limit limit) {
+                return bookingRepository.findByBookerIdAndStatus(userId, status, position, SORT_BY_START_DESC, limit);
+            }
+        };
+    }
+
+    private BookingQueries ownerQueries(Long ownerId) {
+        return new BookingQueries() {
+            @Override
+            public Window<Booking> all(ScrollPosition position, Limit limit) {
+                return bookingRepository.findByItemOwnerId(ownerId, position, SORT_BY_START_DESC, limit);
+            }
+
+            @Override
+            public Window<Booking> current(LocalDateTime now, ScrollPosition position, Limit limit) {
+                return bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfter(
+                        ownerId, now, now, position, SORT_BY_START_DESC, limit);
+            }
+
+            @Override
+            public Window<Booking> past(LocalDateTime now, ScrollPosition position, Limit limit) {
+                return bookingRepository.findByItemOwnerIdAndEndBefore(
+                        ownerId, now, position, SORT_BY_START_DESC, limit);
+            }
+
+            @Override
+            public Window<Booking> future(LocalDateTime now, ScrollPosition position, Limit limit) {
+                return bookingRepository.findByItemOwnerIdAndStartAfter(
+                        ownerId, now, position, SORT_BY_START_DESC, limit);
+            }
+
+            @Override
+            public Window<Booking> byStatus(BookingStatus status, ScrollPosition position, Limit limit) {
+                return bookingRepository.findByItemOwnerIdAndStatus(
+                        ownerId, status, position, SORT_BY_START_DESC, limit);
+            }
+        };
+    }
+
+    private BookingQueries itemQueries(Long itemId) {
+        return new BookingQueries() {
+            @Override
+            public Window<Booking> all(ScrollPosition position, Limit limit) {
+                return bookingRepository.findByItemId(itemId, position, SORT_BY_START_DESC, limit);
+            }
+
+            @Override
+            public Window<Booking> current(LocalDateTime now, ScrollPosition position, Limit limit) {
+                return bookingRepository.findByItemIdAndStartBeforeAndEndAfter(
+                        itemId, now, now, position, SORT_BY_START_DESC, limit);
+            }
+
+            @Override
+            public Window<Booking> past(LocalDateTime now, ScrollPosition position, Limit limit) {
+                return bookingRepository.findByItemIdAndEndBefore(itemId, now, position, SORT_BY_START_DESC, limit);
+            }
+
+            @Override
+            public Window<Booking> future(LocalDateTime now, ScrollPosition position, Limit limit) {
+                return bookingRepository.findByItemIdAndStartAfter(itemId, now, position, SORT_BY_START_DESC, limit);
+            }
+
+            @Override
+            public Window<Booking> byStatus(BookingStatus status, ScrollPosition position, Limit limit) {
+                return bookingRepository.findByItemIdAndStatus(itemId, status, position, SORT_BY_START_DESC, limit);
+            }
+        };
+    }
+
+    // Выборки одного среза броней: автора, владельца или одной вещи
+    private interface BookingQueries {
+        Window<Booking> all(ScrollPosition position, Limit limit);
+
+        Window<Booking> current(LocalDateTime now, ScrollPosition position, Limit limit);
+
+        Window<Booking> past(LocalDateTime now, ScrollPosition position, Limit limit);
+
+        Window<Booking> future(LocalDateTime now, ScrollPosition position, Limit limit);
+
+        Window<Booking> byStatus(BookingStatus status, ScrollPosition position, Limit limit);
+    }
+
+    // Без limit и cursor список отдаётся целиком, как до появления страниц; курсор без limit — страница по умолчанию
+    private Limit toLimit(String cursor, Integer limit) {
+        if (limit == null) {
+            return cursor == null ? Limit.unlimited() : Limit.of(DEFAULT_PAGE_SIZE);
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException(
+                    String.format("Limit must be between 1 and %d", MAX_PAGE_SIZE));
+        }
+        return Limit.of(limit);
+    }
+
+    private BookingPageDto toPage(Window<Booking> bookings) {
+        List<BookingDto> content = bookings.stream()
                 .map(bookingMapper::toBookingDto)
                 .collect(Collectors.toList());
+        String nextCursor = bookings.hasNext() && !bookings.isEmpty()
+                ? BookingCursor.encode(bookings.positionAt(bookings.size() - 1))
+                : null;
+        return BookingPageDto.builder()
+                .bookings(content)
+                .nextCursor(nextCursor)
+                .build();
     }
 }
\ No newline at end of file
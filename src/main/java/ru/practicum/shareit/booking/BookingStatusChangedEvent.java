@@ -0,0 +1,41 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Публикуется BookingServiceImpl при создании брони и каждой смене её статуса.
+ * previousStatus равен null для только что созданной брони.
+ */
+@Value
+@Builder
+public class BookingStatusChangedEvent {
+    Long bookingId;
+    Long itemId;
+    Long bookerId;
+    Long ownerId;
+    LocalDateTime start;
+    LocalDateTime end;
+    BookingStatus previousStatus;
+    BookingStatus status;
+
+    public static BookingStatusChangedEvent of(Booking booking, BookingStatus previousStatus) {
+        return of(booking, previousStatus, booking.getStatus());
+    }
+
+    // Для массовых UPDATE, после которых статус в загруженной сущности остаётся прежним
+    public static BookingStatusChangedEvent of(Booking booking, BookingStatus previousStatus, BookingStatus status) {
+        return BookingStatusChangedEvent.builder()
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .bookerId(booking.getBooker().getId())
+                .ownerId(booking.getItem().getOwner().getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .previousStatus(previousStatus)
+                .status(status)
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.dto;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingBatchRequestDto {
+    @NotEmpty
+    @Size(max = 100)
+    List<@NotNull Long> itemIds;
+
+    @NotNull
+    @FutureOrPresent
+    LocalDateTime start;
+
+    @NotNull
+    @Future
+    LocalDateTime end;
+}
\ No newline at end of file
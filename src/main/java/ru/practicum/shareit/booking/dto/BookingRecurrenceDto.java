@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingRecurrenceDto {
+    @NotNull
+    RecurrenceFrequency frequency;
+
+    // Задаётся ровно одно из двух: число повторений или момент, позже которого повторения не начинаются
+    @Positive
+    Integer count;
+
+    LocalDateTime until;
+}
\ No newline at end of file
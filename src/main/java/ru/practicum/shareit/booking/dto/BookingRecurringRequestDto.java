@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingRecurringRequestDto {
+    @NotNull
+    Long itemId;
+
+    // Период первого повторения; остальные сдвинуты на шаг правила
+    @NotNull
+    @FutureOrPresent
+    LocalDateTime start;
+
+    @NotNull
+    @Future
+    LocalDateTime end;
+
+    @NotNull
+    @Valid
+    BookingRecurrenceDto recurrence;
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Количество бронирований в каждом из состояний {@link BookingState}.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingSummaryDto {
+    Long all;
+    Long current;
+    Long past;
+    Long future;
+    Long waiting;
+    Long rejected;
+}
\ No newline at end of file
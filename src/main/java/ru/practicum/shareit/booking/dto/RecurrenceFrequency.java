@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+public enum RecurrenceFrequency {
+    DAILY {
+        @Override
+        public LocalDateTime shift(LocalDateTime time, long occurrences) {
+            return time.plusDays(occurrences);
+        }
+    },
+    WEEKLY {
+        @Override
+        public LocalDateTime shift(LocalDateTime time, long occurrences) {
+            return time.plusWeeks(occurrences);
+        }
+    };
+
+    // Начало повторения с номером occurrences, если первое начинается в time
+    public abstract LocalDateTime shift(LocalDateTime time, long occurrences);
+}
\ No newline at end of file
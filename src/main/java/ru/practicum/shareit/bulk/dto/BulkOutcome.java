@@ -0,0 +1,11 @@
+package ru.practicum.shareit.bulk.dto;
+
+public enum BulkOutcome {
+    UPDATED,
+    NOT_FOUND,
+    FORBIDDEN,
+    // бронь уже не в статусе WAITING
+    INVALID_STATE,
+    // пересекается с подтверждённой бронью той же вещи
+    CONFLICT
+}
\ No newline at end of file
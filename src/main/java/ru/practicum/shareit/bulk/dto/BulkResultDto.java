@@ -0,0 +1,14 @@
+package ru.practicum.shareit.bulk.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BulkResultDto {
+    Long id;
+    BulkOutcome outcome;
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Потокобезопасный кэш в памяти с ограничением числа записей: при переполнении вытесняются давно не читавшиеся.
+ * Записи разнесены по сегментам с собственной блокировкой, поэтому чтения разных ключей почти не конкурируют;
+ * порядок вытеснения соблюдается внутри сегмента, а не глобально.
+ */
+public final class BoundedCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final BiConsumer<K, V> evictionListener;
+
+    public BoundedCache(int maxSize) {
+        this(maxSize, (key, value) -> {
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(int maxSize, BiConsumer<K, V> evictionListener) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        int count = Math.min(MAX_SEGMENTS, maxSize);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // остаток делится между первыми сегментами, чтобы в сумме выходило ровно maxSize
+            segments[i] = new Segment<>(maxSize / count + (i < maxSize % count ? 1 : 0));
+        }
+        this.evictionListener = evictionListener;
+    }
+
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.map.get(key);
+        }
+    }
+
+    // Загрузка идёт под блокировкой сегмента: событие об изменении того же ключа дождётся её и применится к результату
+    public V computeIfAbsent(K key, Function<K, V> loader) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            V value = segment.map.get(key);
+            if (value == null) {
+                value = loader.apply(key);
+                if (value != null) {
+                    segment.map.put(key, value);
+                    evictOverflow(segment);
+                }
+            }
+            return value;
+        }
+    }
+
+    // Возвращает заменённое значение: его вытеснение слушатель не получает
+    public V put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            V previous = segment.map.put(key, value);
+            evictOverflow(segment);
+            return previous;
+        }
+    }
+
+    public V computeIfPresent(K key, BiFunction<K, V, V> remapping) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.map.computeIfPresent(key, remapping);
+        }
+    }
+
+    public V remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.map.remove(key);
+        }
+    }
+
+    public boolean remove(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.map.remove(key, value);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    private void evictOverflow(Segment<K, V> segment) {
+        Iterator<Map.Entry<K, V>> iterator = segment.map.entrySet().iterator();
+        while (segment.map.size() > segment.capacity && iterator.hasNext()) {
+            Map.Entry<K, V> eldest = iterator.next();
+            iterator.remove();
+            evictionListener.accept(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private static final class Segment<K, V> {
+        private final int capacity;
+        private final LinkedHashMap<K, V> map = new LinkedHashMap<>(16, 0.75f, true);
+
+        private Segment(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.change;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.change.dto.ChangeFeedDto;
+
+@RestController
+@RequestMapping("/changes")
+@RequiredArgsConstructor
+public class ChangeController {
+
+    private final ChangeService changeService;
+
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    @GetMapping
+    public ChangeFeedDto getChanges(@RequestHeader(USER_ID_HEADER) Long userId,
+                                    @RequestParam(required = false) Long since,
+                                    @RequestParam(defaultValue = "100") int limit) {
+        return changeService.getChanges(userId, since, limit);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,172 @@
+package ru.practicum.shareit.change;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingStatusChangedEvent;
+import ru.practicum.shareit.item.CommentAddedEvent;
+import ru.practicum.shareit.item.ItemChangedEvent;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Проставляет change_seq строкам, изменённым в транзакции, непосредственно перед её коммитом.
+ * Номера выдаёт последовательность change_seq, общей блокировки у пишущих транзакций нет, поэтому
+ * транзакция с большим номером может закоммититься раньше транзакции с меньшим. Чтобы клиент ленты
+ * не перескочил через такой номер, перед выдачей номеров транзакция отдельно коммитит квитанцию
+ * в change_tickets с номером меньше своих и удаляет её вместе со своим коммитом, а {@link #safeSeq()}
+ * не поднимает отметку выше самой старой открытой квитанции. Никто никого не ждёт.
+ */
+@Slf4j
+@Component
+public class ChangeSequencer {
+
+    static final String ITEMS = "items";
+    static final String BOOKINGS = "bookings";
+    static final String COMMENTS = "comments";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate ticketTransaction;
+    private final long ticketTimeoutMillis;
+
+    public ChangeSequencer(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${shareit.changes.ticket-timeout-ms:60000}") long ticketTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.ticketTransaction = new TransactionTemplate(transactionManager);
+        this.ticketTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ticketTimeoutMillis = ticketTimeoutMillis;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        pendingChanges().add(BOOKINGS, event.getBookingId());
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onItemChanged(ItemChangedEvent event) {
+        pendingChanges().add(ITEMS, event.getItemId());
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCommentAdded(CommentAddedEvent event) {
+        pendingChanges().add(COMMENTS, event.getCommentId());
+    }
+
+    /**
+     * Номер, до которого включительно все изменения уже закоммичены или откачены: строка с меньшим номером
+     * больше не появится. Транзакция, получившая номер раньше нашего, к этому моменту уже закоммитила
+     * квитанцию с ещё меньшим номером, и та видна, пока транзакция не завершилась. Квитанции старше
+     * ticket-timeout-ms не учитываются: их оставил узел, упавший между квитанцией и коммитом.
+     */
+    public long safeSeq() {
+        return ticketTransaction.execute(status -> {
+            SeqAndTime next = nextSeq();
+            Long oldest = jdbcTemplate.queryForObject("SELECT MIN(seq) FROM change_tickets WHERE created_at > ?",
+                    Long.class, next.expiredBefore(ticketTimeoutMillis));
+            return (oldest == null ? next.seq() : Math.min(next.seq(), oldest)) - 1;
+        });
+    }
+
+    // В отдельной транзакции: квитанция должна стать видна ленте до того, как пишущая транзакция возьмёт номера
+    private long openTicket() {
+        return ticketTransaction.execute(status -> {
+            SeqAndTime ticket = nextSeq();
+            jdbcTemplate.update("DELETE FROM change_tickets WHERE created_at < ?",
+                    ticket.expiredBefore(ticketTimeoutMillis));
+            jdbcTemplate.update("INSERT INTO change_tickets (seq, created_at) VALUES (?, ?)",
+                    ticket.seq(), ticket.time());
+            return ticket.seq();
+        });
+    }
+
+    // Время берётся у БД, чтобы возраст квитанций считался одинаково на всех узлах
+    private SeqAndTime nextSeq() {
+        return jdbcTemplate.queryForObject("SELECT nextval('change_seq'), LOCALTIMESTAMP",
+                (rs, rowNum) -> new SeqAndTime(rs.getLong(1), rs.getTimestamp(2)));
+    }
+
+    private PendingChanges pendingChanges() {
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+        final Map<String, Set<Long>> idsByTable = new LinkedHashMap<>();
+        Long ticket;
+
+        void add(String table, Long id) {
+            idsByTable.computeIfAbsent(table, key -> new LinkedHashSet<>()).add(id);
+        }
+
+        // Последними, после остальных BEFORE_COMMIT-слушателей: пока квитанция открыта, отметка ленты стоит,
+        // поэтому ждать блокировок строк транзакция должна до неё
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            entityManager.flush();
+            ticket = openTicket();
+            for (Map.Entry<String, Set<Long>> entry : idsByTable.entrySet()) {
+                List<Object[]> args = new ArrayList<>(entry.getValue().size());
+                for (Long id : entry.getValue()) {
+                    args.add(new Object[]{id});
+                }
+                jdbcTemplate.batchUpdate("UPDATE " + entry.getKey() + " SET change_seq = nextval('change_seq') " +
+                        "WHERE id = ?", args);
+            }
+            // Квитанция исчезает для ленты в момент коммита, вместе с появлением номеров
+            jdbcTemplate.update("DELETE FROM change_tickets WHERE seq = ?", ticket);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ChangeSequencer.this);
+            if (ticket != null && status != STATUS_COMMITTED) {
+                try {
+                    ticketTransaction.executeWithoutResult(tx ->
+                            jdbcTemplate.update("DELETE FROM change_tickets WHERE seq = ?", ticket));
+                } catch (RuntimeException e) {
+                    log.warn("Failed to close change ticket {}, it will expire after {} ms",
+                            ticket, ticketTimeoutMillis, e);
+                }
+            }
+        }
+    }
+
+    private record SeqAndTime(long seq, Timestamp time) {
+        Timestamp expiredBefore(long timeoutMillis) {
+            return new Timestamp(time.getTime() - timeoutMillis);
+        }
+    }
+}
\ No newline at end of file
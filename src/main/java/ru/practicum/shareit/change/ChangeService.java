@@ -0,0 +1,8 @@
+package ru.practicum.shareit.change;
+
+import ru.practicum.shareit.change.dto.ChangeFeedDto;
+
+public interface ChangeService {
+    // Без since возвращает только текущий токен: клиент берёт его до полной загрузки списков
+    ChangeFeedDto getChanges(Long userId, Long since, int limit);
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.change;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.change.dto.ChangeFeedDto;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.CommentMapper;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ChangeServiceImpl implements ChangeService {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final BookingMapper bookingMapper;
+    private final ChangeSequencer changeSequencer;
+
+    @Override
+    public ChangeFeedDto getChanges(Long userId, Long since, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ValidationException(String.format("Limit must be between 1 and %d", MAX_LIMIT));
+        }
+        if (since != null && since < 0) {
+            throw new ValidationException("Token must be non-negative");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException(String.format("User with id %d not found", userId));
+        }
+        // Граница берётся до выборок: все изменения с номерами до неё к этому моменту уже закоммичены,
+        // а строки с большими номерами откладываются до следующего запроса, даже если уже видны
+        long current = changeSequencer.safeSeq();
+        if (since == null) {
+            return ChangeFeedDto.builder()
+                    .items(List.of())
+                    .bookings(List.of())
+                    .comments(List.of())
+                    .token(current)
+                    .hasMore(false)
+                    .build();
+        }
+
+        // Номера изменений уникальны во всех трёх таблицах, поэтому страница — это limit наименьших из них
+        Limit fetch = Limit.of(limit + 1);
+        List<Item> items = itemRepository.findByOwnerIdAndChangeSeqBetweenOrderByChangeSeqAsc(
+                userId, since + 1, current, fetch);
+        List<Booking> bookings = bookingRepository.findChangedForUser(userId, since, current, fetch);
+        List<Comment> comments = commentRepository.findByItemOwnerIdAndChangeSeqBetweenOrderByChangeSeqAsc(
+                userId, since + 1, current, fetch);
+
+        List<Item> pageItems = new ArrayList<>();
+        List<Booking> pageBookings = new ArrayList<>();
+        List<Comment> pageComments = new ArrayList<>();
+        int i = 0;
+        int b = 0;
+        int c = 0;
+        long token = since;
+        for (int taken = 0; taken < limit; taken++) {
+            long itemSeq = i < items.size() ? items.get(i).getChangeSeq() : Long.MAX_VALUE;
+            long bookingSeq = b < bookings.size() ? bookings.get(b).getChangeSeq() : Long.MAX_VALUE;
+            long commentSeq = c < comments.size() ? comments.get(c).getChangeSeq() : Long.MAX_VALUE;
+            long next = Math.min(itemSeq, Math.min(bookingSeq, commentSeq));
+            if (next == Long.MAX_VALUE) {
+                break;
+            }
+            if (next == itemSeq) {
+                pageItems.add(items.get(i++));
+            } else if (next == bookingSeq) {
+                pageBookings.add(bookings.get(b++));
+            } else {
+                pageComments.add(comments.get(c++));
+            }
+            token = next;
+        }
+        boolean hasMore = i < items.size() || b < bookings.size() || c < comments.size();
+        if (!hasMore) {
+            // Изменения пользователя разобраны: следующий запрос не будет заново просматривать чужие
+            token = Math.max(token, current);
+        }
+
+        return ChangeFeedDto.builder()
+                .items(pageItems.stream().map(ItemMapper::toItemDto).toList())
+                .bookings(pageBookings.stream().map(bookingMapper::toBookingDto).toList())
+                .comments(pageComments.stream().map(CommentMapper::toCommentDto).toList())
+                .token(token)
+                .hasMore(hasMore)
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.change.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.AccessLevel;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ChangeFeedDto {
+    // текущее состояние строк, созданных или изменённых после since
+    List<ItemDto> items;
+    List<BookingDto> bookings;
+    List<CommentDto> comments;
+    // since для следующего запроса
+    Long token;
+    // изменений больше, чем limit: следующий запрос с token вернёт продолжение
+    Boolean hasMore;
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.exception;
+
+import java.sql.SQLException;
+
+/**
+ * Распознавание нарушений ограничений БД по SQLState в цепочке причин исключения.
+ */
+public final class ConstraintViolations {
+
+    // exclusion_violation: его возвращает триггер trg_booking_item_approved_overlap (и H2-аналог в тестах)
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private ConstraintViolations() {
+    }
+
+    // Пересечение подтверждённых броней одной вещи; остальные нарушения (NOT NULL, FK, длина) сюда не относятся
+    public static boolean isApprovedBookingOverlap(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
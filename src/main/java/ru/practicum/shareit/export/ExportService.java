@@ -0,0 +1,10 @@
+package ru.practicum.shareit.export;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public interface ExportService {
+    // Пользователь проверяется сразу, строки читаются уже при записи ответа
+    StreamingResponseBody exportOwnerBookings(Long ownerId, ExportFormat format);
+
+    StreamingResponseBody exportOwnerItems(Long ownerId, ExportFormat format);
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    // Совпадает с fetch size потоковых запросов: контекст персистентности очищается после каждой пачки
+    static final int BATCH_SIZE = 500;
+
+    private static final List<String> BOOKING_COLUMNS =
+            List.of("id", "start", "end", "status", "itemId", "itemName", "bookerId");
+    private static final List<String> ITEM_COLUMNS =
+            List.of("id", "name", "description", "available", "requestId");
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public ExportServiceImpl(BookingRepository bookingRepository,
+                             ItemRepository itemRepository,
+                             UserRepository userRepository,
+                             ObjectMapper objectMapper,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        // Тело ответа пишется вне потока запроса, поэтому транзакцию для курсора открываем сами
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public StreamingResponseBody exportOwnerBookings(Long ownerId, ExportFormat format) {
+        checkUserExists(ownerId);
+        return out -> export(out, format, BOOKING_COLUMNS,
+                () -> bookingRepository.streamByItemOwnerId(ownerId),
+                (Booking booking) -> Arrays.asList(
+                        booking.getId(),
+                        booking.getStart(),
+                        booking.getEnd(),
+                        booking.getStatus(),
+                        booking.getItem().getId(),
+                        booking.getItem().getName(),
+                        booking.getBooker().getId()));
+    }
+
+    @Override
+    public StreamingResponseBody exportOwnerItems(Long ownerId, ExportFormat format) {
+        checkUserExists(ownerId);
+        return out -> export(out, format, ITEM_COLUMNS,
+                () -> itemRepository.streamByOwnerIdOrderByIdAsc(ownerId),
+                (Item item) -> Arrays.asList(
+                        item.getId(),
+                        item.getName(),
+                        item.getDescription(),
+                        item.getAvailable(),
+                        item.getRequestId()));
+    }
+
+    private void checkUserExists(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException(String.format("User with id %d not found", userId));
+        }
+    }
+
+    private <T> void export(OutputStream out, ExportFormat format, List<String> columns,
+                            RowSource<T> source, RowMapper<T> mapper) throws IOException {
+        ExportWriter writer = new ExportWriter(out, format, objectMapper, columns);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<T> rows = source.open()) {
+                    Iterator<T> iterator = rows.iterator();
+                    int count = 0;
+                    while (iterator.hasNext()) {
+                        writer.write(mapper.toRow(iterator.next()));
+                        // Прочитанные сущности больше не нужны, иначе сессия росла бы вместе с выгрузкой
+                        if (++count % BATCH_SIZE == 0) {
+                            entityManager.clear();
+                            writer.flush();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    @FunctionalInterface
+    private interface RowSource<T> {
+        Stream<T> open();
+    }
+
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        List<?> toRow(T entity);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Ответы на запросы с заголовком Idempotency-Key. Повтор с тем же ключом получает сохранённый ответ
+ * без повторного вызова сервиса; одновременные повторы ждут первый запрос, а не выполняются параллельно.
+ * Хранилище в памяти узла, ограничено по числу ключей и времени жизни; ключи ещё выполняющихся запросов
+ * не вытесняются. Ошибки не сохраняются: после них запрос с тем же ключом выполняется заново.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final ObjectMapper objectMapper;
+    private final long ttlMillis;
+    private final int maxKeys;
+    private final long awaitTimeoutMillis;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    // Ключи в порядке появления: вытеснение идёт с самых старых
+    private final ConcurrentLinkedQueue<Key> order = new ConcurrentLinkedQueue<>();
+
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            @Value("${shareit.idempotency.ttl-ms:86400000}") long ttlMillis,
+                            @Value("${shareit.idempotency.max-keys:100000}") int maxKeys,
+                            @Value("${shareit.idempotency.await-timeout-ms:30000}") long awaitTimeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.ttlMillis = ttlMillis;
+        this.maxKeys = maxKeys;
+        this.awaitTimeoutMillis = awaitTimeoutMillis;
+    }
+
+    public <T> T execute(String operation, Long userId, String idempotencyKey, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException(
+                    String.format("%s must be non-blank and at most %d characters", HEADER, MAX_KEY_LENGTH));
+        }
+        Key key = new Key(operation, userId, idempotencyKey);
+        byte[] fingerprint = fingerprint(request);
+        evictStale();
+
+        Entry entry = new Entry(fingerprint, System.currentTimeMillis());
+        Entry existing;
+        while ((existing = entries.putIfAbsent(key, entry)) != null) {
+            if (!existing.isReplaceable()) {
+                if (!Arrays.equals(existing.fingerprint, fingerprint)) {
+                    throw new ConflictException(
+                            String.format("%s was already used with a different request", HEADER));
+                }
+                return read(await(existing), responseType);
+            }
+            if (entries.replace(key, existing, entry)) {
+                break;
+            }
+            // Другой запрос успел заменить просроченную запись — смотрим, что теперь лежит под ключом
+        }
+        order.add(key);
+
+        try {
+            T response = action.get();
+            entry.response.complete(write(response));
+            return response;
+        } catch (Throwable e) {
+            // Любая ошибка, включая Error, освобождает ключ и будит ждущие повторы
+            entries.remove(key, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evictStale() {
+        Iterator<Key> keys = order.iterator();
+        while (keys.hasNext()) {
+            Key key = keys.next();
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.isExpired() && entries.size() <= maxKeys) {
+                return;
+            }
+            // Ключ выполняющегося запроса не вытесняем: повтор выполнил бы запрос второй раз
+            if (entry != null && !entry.response.isDone()) {
+                continue;
+            }
+            keys.remove();
+            if (entry != null) {
+                entries.remove(key, entry);
+            }
+        }
+    }
+
+    private String await(Entry entry) {
+        try {
+            return entry.response.get(awaitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ConflictException(
+                    String.format("Request with the same %s is still in progress, retry later", HEADER));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotent request", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private byte[] fingerprint(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(write(request).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotent response", e);
+        }
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize idempotent response", e);
+        }
+    }
+
+    private record Key(String operation, Long userId, String idempotencyKey) {
+    }
+
+    private final class Entry {
+        final byte[] fingerprint;
+        final long createdAt;
+        final CompletableFuture<String> response = new CompletableFuture<>();
+
+        Entry(byte[] fingerprint, long createdAt) {
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - createdAt >= ttlMillis;
+        }
+
+        // Просроченную запись заменяет новый запрос, но только после завершения прежнего
+        boolean isReplaceable() {
+            return isExpired() && response.isDone();
+        }
+    }
+}
\ No newline at end of file
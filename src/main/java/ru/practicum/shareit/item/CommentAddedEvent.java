@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item;
+
+import lombok.Builder;
+import lombok.Value;
+import ru.practicum.shareit.item.model.Comment;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+public class CommentAddedEvent {
+    Long commentId;
+    Long itemId;
+    Long authorId;
+    String text;
+    LocalDateTime created;
+
+    public static CommentAddedEvent of(Comment comment) {
+        return CommentAddedEvent.builder()
+                .commentId(comment.getId())
+                .itemId(comment.getItem().getId())
+                .authorId(comment.getAuthor().getId())
+                .text(comment.getText())
+                .created(comment.getCreated())
+                .build();
+    }
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.item.model.Comment;
 
@@ -7,4 +9,8 @@ import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByItemId(Long itemId);
+
+    @EntityGraph(attributePaths = {"author"})
+    List<Comment> findByItemOwnerIdAndChangeSeqBetweenOrderByChangeSeqAsc(Long ownerId, Long from, Long to,
+                                                                           Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Слова ищутся как префиксы, а не подстроки, поэтому режим включается явно: shareit.items.search.mode=full-text
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.items.search.mode", havingValue = "full-text")
+public class FullTextItemSearch implements ItemSearch {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, int page, int size) {
+        String query = toPrefixQuery(text);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        return itemRepository.searchFullText(query, size, (long) page * size);
+    }
+
+    // Слова запроса как префиксы, все обязательны: "дрел удар" -> "дрел:* & удар:*".
+    // Остальные символы отбрасываются, поэтому синтаксис tsquery из пользовательского текста не попадает в запрос
+    static String toPrefixQuery(String text) {
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
\ No newline at end of file
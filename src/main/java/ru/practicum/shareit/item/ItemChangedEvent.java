@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item;
+
+import lombok.Builder;
+import lombok.Value;
+import ru.practicum.shareit.item.model.Item;
+
+/**
+ * Публикуется ItemServiceImpl при создании вещи, каждом изменении её полей и перед удалением вещи
+ * каскадом вместе с владельцем.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ItemChangedEvent {
+    Long itemId;
+    Long ownerId;
+    String name;
+    String description;
+    Boolean available;
+    Long requestId;
+    Type type;
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static ItemChangedEvent of(Item item, Type type) {
+        return ItemChangedEvent.builder()
+                .itemId(item.getId())
+                .ownerId(item.getOwner().getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .requestId(item.getRequestId())
+                .type(type)
+                .build();
+    }
+}
\ No newline at end of file
@@ -2,9 +2,21 @@ package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.BookingPages;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.bulk.dto.BulkResultDto;
+import ru.practicum.shareit.export.ExportFormat;
+import ru.practicum.shareit.export.ExportService;
+import ru.practicum.shareit.idempotency.IdempotencyStore;
 import ru.practicum.shareit.item.dto.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -13,13 +25,18 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ExportService exportService;
+    private final IdempotencyStore idempotencyStore;
+    private final BookingService bookingService;
 
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
 
     @PostMapping
     public ItemDto create(@Valid @RequestBody ItemDto itemDto,
-                          @RequestHeader(USER_ID_HEADER) Long userId) {
-        return itemService.create(itemDto, userId);
+                          @RequestHeader(USER_ID_HEADER) Long userId,
+                          @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("POST /items", userId, idempotencyKey, itemDto, ItemDto.class,
+                () -> itemService.create(itemDto, userId));
     }
 
     @PatchMapping("/{itemId}")
@@ -29,20 +46,78 @@ public class ItemController {
         return itemService.update(itemId, itemDto, userId);
     }
 
+    @PatchMapping("/bulk")
+    public List<BulkResultDto> updateAvailability(@Valid @RequestBody ItemBulkAvailabilityDto requestDto,
+                                                  @RequestHeader(USER_ID_HEADER) Long userId) {
+        return itemService.updateAvailability(userId, requestDto.getItemIds(), requestDto.getAvailable());
+    }
+
     @GetMapping("/{itemId}")
     public ItemDetailedDto getById(@PathVariable Long itemId,
                                    @RequestHeader(value = USER_ID_HEADER, required = false) Long userId) {
         return itemService.getById(itemId, userId);
     }
 
+    // Те же состояния и курсор, что у /bookings/owner, но только по одной вещи
+    @GetMapping("/{itemId}/bookings")
+    public ResponseEntity<List<BookingDto>> getItemBookings(@PathVariable Long itemId,
+                                                            @RequestHeader(USER_ID_HEADER) Long userId,
+                                                            @RequestParam(defaultValue = "ALL") BookingState state,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limit) {
+        return BookingPages.toResponse(bookingService.getItemBookings(userId, itemId, state, cursor, limit));
+    }
+
     @GetMapping
     public List<ItemOwnerDto> getAllByOwner(@RequestHeader(USER_ID_HEADER) Long userId) {
         return itemService.getAllByOwner(userId);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOwnerItems(
+            @RequestHeader(USER_ID_HEADER) Long userId,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(exportService.exportOwnerItems(userId, format));
+    }
+
+    @GetMapping("/analytics")
+    public List<ItemUtilizationDto> getUtilization(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                   LocalDateTime from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                   LocalDateTime to) {
+        return itemService.getUtilization(userId, from, to);
+    }
+
     @GetMapping("/search")
-    public List<ItemDto> search(@RequestParam String text) {
-        return itemService.search(text);
+    public List<ItemDto> search(@RequestParam(required = false) String text,
+                                @RequestParam(required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                @RequestParam(required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                @RequestParam(required = false) Integer page,
+                                @RequestParam(required = false) Integer size) {
+        if (from == null && to == null) {
+            return itemService.search(text, page, size);
+        }
+        return itemService.searchAvailableBetween(text, from, to, page, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public List<FreeWindowDto> getAvailability(@PathVariable Long itemId,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime to) {
+        return itemService.getAvailability(itemId, from, to);
+    }
+
+    @GetMapping("/{itemId}/occupancy")
+    public ItemOccupancyDto getOccupancy(@PathVariable Long itemId,
+                                         @RequestParam int year) {
+        return itemService.getOccupancy(itemId, year);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.item.model.ItemOccupancy;
+
+public interface ItemOccupancyRepository extends JpaRepository<ItemOccupancy, ItemOccupancy.Key> {
+}
\ No newline at end of file
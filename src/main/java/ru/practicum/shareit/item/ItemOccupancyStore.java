@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStatusChangedEvent;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.item.model.ItemOccupancy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Подневная занятость вещей. Битовые карты хранятся в item_occupancy и кэшируются в памяти;
+ * при подтверждении брони карта обновляется в той же транзакции. Кэш ограничен числом карт.
+ */
+@Component
+public class ItemOccupancyStore {
+
+    // 366 дней, округлённые до целых байт
+    static final int BITMAP_BYTES = 46;
+    // Каждый запрошенный год — отдельная карта в кэше; дальние годы бессмысленны и раздували бы его
+    static final int MAX_YEARS_FROM_NOW = 10;
+    // Кэш других узлов не знает о чужих подтверждениях, поэтому живёт недолго
+    private static final long CACHE_TTL_MILLIS = 60_000;
+
+    private final ItemOccupancyRepository occupancyRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BoundedCache<ItemOccupancy.Key, CachedBitmap> cache;
+
+    public ItemOccupancyStore(ItemOccupancyRepository occupancyRepository,
+                              ItemRepository itemRepository,
+                              BookingRepository bookingRepository,
+                              @Value("${shareit.items.occupancy.cache.max-entries:10000}") int maxEntries) {
+        this.occupancyRepository = occupancyRepository;
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.cache = new BoundedCache<>(maxEntries);
+    }
+
+    public BitSet get(Long itemId, int year) {
+        ItemOccupancy.Key key = new ItemOccupancy.Key(itemId, year);
+        CachedBitmap cached = cache.get(key);
+        if (cached != null) {
+            if (System.currentTimeMillis() - cached.loadedAt < CACHE_TTL_MILLIS) {
+                return BitSet.valueOf(cached.days);
+            }
+            cache.remove(key, cached);
+        }
+        // Для лет без подтверждений после появления таблицы карта строится по броням и только кэшируется
+        byte[] days = occupancyRepository.findById(key)
+                .map(ItemOccupancy::getDays)
+                .orElseGet(() -> toBytes(build(itemId, year)));
+        cache.put(key, new CachedBitmap(days, System.currentTimeMillis()));
+        return BitSet.valueOf(days);
+    }
+
+    // Раньше ChangeSequencer: пока транзакция ждёт блокировку строки вещи с открытой квитанцией, лента стоит
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBookingApproved(BookingStatusChangedEvent event) {
+        if (event.getStatus() != BookingStatus.APPROVED) {
+            return;
+        }
+        Years years = readableYears(event);
+        if (years.first() > years.last()) {
+            return;
+        }
+        // Блокировка строки вещи упорядочивает обновления карт одной вещи и исключает гонку при вставке
+        itemRepository.findForUpdateById(event.getItemId());
+        for (int year = years.first(); year <= years.last(); year++) {
+            ItemOccupancy occupancy = occupancyRepository.findById(new ItemOccupancy.Key(event.getItemId(), year))
+                    .orElse(null);
+            if (occupancy == null) {
+                // Бронь уже записана в БД, поэтому построенная карта её учитывает
+                occupancy = new ItemOccupancy(event.getItemId(), year, toBytes(build(event.getItemId(), year)));
+            } else {
+                BitSet days = BitSet.valueOf(occupancy.getDays());
+                mark(days, year, event.getStart(), event.getEnd());
+                occupancy.setDays(toBytes(days));
+            }
+            occupancyRepository.save(occupancy);
+        }
+    }
+
+    @TransactionalEventListener
+    public void evictAfterApproval(BookingStatusChangedEvent event) {
+        if (event.getStatus() != BookingStatus.APPROVED) {
+            return;
+        }
+        Years years = readableYears(event);
+        for (int year = years.first(); year <= years.last(); year++) {
+            cache.remove(new ItemOccupancy.Key(event.getItemId(), year));
+        }
+    }
+
+    /**
+     * Годы брони, которые ещё можно запросить: не дальше MAX_YEARS_FROM_NOW от текущего. Карта более позднего
+     * года не пишется — к моменту, когда год станет доступен, её построят по броням; ранние годы уже не читаются.
+     */
+    private static Years readableYears(BookingStatusChangedEvent event) {
+        int currentYear = Year.now().getValue();
+        int firstYear = Math.max(event.getStart().getYear(), currentYear - MAX_YEARS_FROM_NOW);
+        int lastYear = Math.min(event.getEnd().minusNanos(1).getYear(), currentYear + MAX_YEARS_FROM_NOW);
+        return new Years(firstYear, lastYear);
+    }
+
+    private BitSet build(Long itemId, int year) {
+        LocalDateTime yearStart = LocalDate.of(year, 1, 1).atStartOfDay();
+        LocalDateTime nextYearStart = yearStart.plusYears(1);
+        BitSet days = new BitSet(Year.of(year).length());
+        for (Booking booking : bookingRepository.findByItemIdAndStatusAndStartBeforeAndEndAfter(
+                itemId, BookingStatus.APPROVED, nextYearStart, yearStart)) {
+            mark(days, year, booking.getStart(), booking.getEnd());
+        }
+        return days;
+    }
+
+    static void mark(BitSet days, int year, LocalDateTime start, LocalDateTime end) {
+        LocalDate first = start.toLocalDate();
+        LocalDate last = end.minusNanos(1).toLocalDate();
+        int from = first.getYear() < year ? 0 : first.getYear() > year ? -1 : first.getDayOfYear() - 1;
+        int to = last.getYear() > year ? Year.of(year).length() : last.getYear() < year ? -1 : last.getDayOfYear();
+        if (from >= 0 && to > from) {
+            days.set(from, to);
+        }
+    }
+
+    private static byte[] toBytes(BitSet days) {
+        return Arrays.copyOf(days.toByteArray(), BITMAP_BYTES);
+    }
+
+    private record CachedBitmap(byte[] days, long loadedAt) {
+    }
+
+    private record Years(int first, int last) {
+    }
+}
\ No newline at end of file
@@ -1,16 +1,98 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.model.BookedInterval;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingCounts;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByOwnerId(Long ownerId);
 
+    List<Item> findByOwnerIdAndChangeSeqBetweenOrderByChangeSeqAsc(Long ownerId, Long from, Long to, Limit limit);
+
+    // Догрузка индекса поиска NgramItemSearch: вещи с номером изменения в [from, to], страницами по (changeSeq, id)
+    Window<Item> findByChangeSeqBetween(Long from, Long to, ScrollPosition position, Sort sort, Limit limit);
+
+    @Query("select i.id from Item i where i.id in :ids")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Item> streamByOwnerIdOrderByIdAsc(Long ownerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Item> findForUpdateById(Long id);
+
+    // Порядок по id, чтобы параллельные массовые операции брали блокировки одинаково
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Item> findForUpdateByIdInOrderByIdAsc(Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Item i set i.available = :available where i.id in :ids and i.owner.id = :ownerId")
+    int updateAvailability(Collection<Long> ids, Long ownerId, boolean available);
+
+    // Поиск подстрокой для баз без полнотекстового индекса (H2 в тестах); недоступные вещи отсекаются в SQL
+    @Query("select i from Item i " +
+            "where i.available = true " +
+            "and (upper(i.name) like upper(concat('%', :text, '%')) " +
+            "or upper(i.description) like upper(concat('%', :text, '%')))")
+    List<Item> searchAvailable(String text, Pageable pageable);
+
+    // Полнотекстовый поиск PostgreSQL по search_vector из schema-postgresql.sql (GIN-индекс idx_items_search).
+    // Совпадения в названии весят больше, чем в описании; id делает порядок страниц устойчивым
+    @Query(nativeQuery = true, value = "select i.* " +
+            "from items i, to_tsquery('simple', :query) q " +
+            "where i.is_available and i.search_vector @@ q " +
+            "order by ts_rank(i.search_vector, q) desc, i.id " +
+            "limit :limit offset :offset")
+    List<Item> searchFullText(String query, int limit, long offset);
+
+    // Анти-соединение: доступные вещи без подтверждённой брони, пересекающей [from, to).
+    // NOT EXISTS обслуживается индексом idx_bookings_item_dates
     @Query("select i from Item i " +
-            "where upper(i.name) like upper(concat('%', ?1, '%')) " +
-            "or upper(i.description) like upper(concat('%', ?1, '%'))")
-    List<Item> search(String text);
+            "where i.available = true " +
+            "and (upper(i.name) like upper(concat('%', :text, '%')) " +
+            "or upper(i.description) like upper(concat('%', :text, '%'))) " +
+            "and not exists (select b.id from Booking b " +
+            "where b.item = i and b.status = :status and b.start < :to and b.end > :from)")
+    List<Item> searchAvailableBetween(String text, LocalDateTime from, LocalDateTime to,
+                                      BookingStatus status, Pageable pageable);
+
+    // Счётчики броней, пересекающих [from, to), по каждой вещи владельца; вещи без броней тоже попадают в выборку
+    @Query("select new ru.practicum.shareit.item.model.ItemBookingCounts(i.id, i.name, count(b), " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "then 1L else 0L end), 0L), " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.BookingStatus.REJECTED " +
+            "then 1L else 0L end), 0L)) " +
+            "from Item i left join Booking b on b.item = i and b.start < :to and b.end > :from " +
+            "where i.owner.id = :ownerId " +
+            "group by i.id, i.name order by i.id")
+    List<ItemBookingCounts> countBookingsByOwnerId(Long ownerId, LocalDateTime from, LocalDateTime to);
+
+    @Query("select new ru.practicum.shareit.item.model.BookedInterval(b.item.id, b.start, b.end) " +
+            "from Booking b " +
+            "where b.item.owner.id = :ownerId and b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "and b.start < :to and b.end > :from")
+    List<BookedInterval> findApprovedIntervalsByOwnerId(Long ownerId, LocalDateTime from, LocalDateTime to);
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по тексту с постраничной выдачей. Реализация выбирается свойством
+ * shareit.items.search.mode: full-text для PostgreSQL, like для баз без полнотекстового поиска
+ * или ngram — индекс триграмм в памяти процесса.
+ */
+public interface ItemSearch {
+    List<Item> search(String text, int page, int size);
+}
\ No newline at end of file
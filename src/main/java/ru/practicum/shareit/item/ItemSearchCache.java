@@ -0,0 +1,286 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Кэш страниц поиска вещей по нормализованному запросу. Ограничен числом записей (вытесняются давно
+ * не читавшиеся) и временем жизни. После коммита изменения вещи сбрасываются только страницы, где она есть,
+ * и страницы запросов, которым её новый текст может соответствовать. Такие страницы находятся по обратным
+ * индексам от вещи, триграммы и начала слова запроса, а не перебором кэша. Изменения на других узлах кэш
+ * не видит, поэтому их задержка ограничена временем жизни записи.
+ */
+@Component
+public class ItemSearchCache {
+
+    private final long ttlMillis;
+    private final double minSimilarity;
+    private final BoundedCache<Key, Entry> entries;
+    private final Map<Long, Set<Entry>> entriesByItem = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Entry>> entriesByTrigram = new ConcurrentHashMap<>();
+    private final Map<String, Set<Entry>> entriesByWordStart = new ConcurrentHashMap<>();
+    // Страницы, которые ищутся прямо сейчас: изменение, пришедшее во время поиска, может сделать его результат
+    // устаревшим, а в обратных индексах такой страницы ещё нет
+    private final Set<Loading> loading = ConcurrentHashMap.newKeySet();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter invalidationCounter;
+    private final Counter evictionCounter;
+
+    public ItemSearchCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.items.search.cache.max-entries:10000}") int maxEntries,
+                           @Value("${shareit.items.search.cache.ttl-ms:60000}") long ttlMillis,
+                           @Value("${shareit.items.search.ngram.min-similarity:0.3}") double minSimilarity) {
+        this.ttlMillis = ttlMillis;
+        this.minSimilarity = minSimilarity;
+        this.hitCounter = meterRegistry.counter("shareit.items.search.cache.hits");
+        this.missCounter = meterRegistry.counter("shareit.items.search.cache.misses");
+        this.invalidationCounter = meterRegistry.counter("shareit.items.search.cache.invalidations");
+        this.evictionCounter = meterRegistry.counter("shareit.items.search.cache.evictions");
+        this.entries = new BoundedCache<>(maxEntries, (key, entry) -> {
+            unregister(entry);
+            evictionCounter.increment();
+        });
+        meterRegistry.gauge("shareit.items.search.cache.size", this, ItemSearchCache::size);
+    }
+
+    public List<ItemDto> get(String text, int page, int size, Supplier<List<ItemDto>> search) {
+        Key key = new Key(normalize(text), page, size);
+        long loadedAt = System.currentTimeMillis();
+        Entry cached = entries.get(key);
+        if (cached != null) {
+            if (loadedAt - cached.loadedAt < ttlMillis) {
+                hitCounter.increment();
+                return cached.items;
+            }
+            remove(cached);
+        }
+        missCounter.increment();
+        Loading load = new Loading(new Query(key.text));
+        loading.add(load);
+        try {
+            List<ItemDto> items = List.copyOf(search.get());
+            Entry entry = new Entry(key, load.query, items, loadedAt);
+            // Проверка и публикация идут под блокировкой поиска: изменение либо пометит его раньше,
+            // либо дождётся публикации и найдёт страницу в обратных индексах
+            synchronized (load) {
+                if (!load.isStale(entry)) {
+                    register(entry);
+                    Entry previous = entries.put(key, entry);
+                    if (previous != null) {
+                        unregister(previous);
+                    }
+                }
+                load.done = true;
+            }
+            return items;
+        } finally {
+            loading.remove(load);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        Long itemId = event.getItemId();
+        String text = (event.getName() + " " + event.getDescription()).toLowerCase(Locale.ROOT);
+        long[] textTrigrams = TrigramIndex.trigrams(text);
+        Set<Long> trigrams = new HashSet<>();
+        for (long trigram : textTrigrams) {
+            trigrams.add(trigram);
+        }
+        // Сначала идущие поиски, потом готовые страницы: поиск, закончившийся до проверки,
+        // уже опубликовал страницу в обратных индексах
+        for (Loading load : loading) {
+            load.onItemChanged(itemId, text, trigrams, minSimilarity);
+        }
+        Set<Entry> candidates = new HashSet<>();
+        addAll(candidates, entriesByItem.get(itemId));
+        for (long trigram : textTrigrams) {
+            addAll(candidates, entriesByTrigram.get(trigram));
+        }
+        for (String word : Query.words(text)) {
+            for (int from = 0; from < word.length(); from++) {
+                for (int to = from + 1; to <= Math.min(word.length(), from + Query.WORD_START_LENGTH); to++) {
+                    addAll(candidates, entriesByWordStart.get(word.substring(from, to)));
+                }
+            }
+        }
+        for (Entry entry : candidates) {
+            if ((entry.contains(itemId) || entry.query.mayMatch(text, trigrams, minSimilarity)) && remove(entry)) {
+                invalidationCounter.increment();
+            }
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    // Регистр не влияет на результат ни одной реализации ItemSearch; внутренние пробелы важны для поиска подстрокой
+    static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private boolean remove(Entry entry) {
+        if (entries.remove(entry.key, entry)) {
+            unregister(entry);
+            return true;
+        }
+        return false;
+    }
+
+    private void register(Entry entry) {
+        for (long itemId : entry.itemIds) {
+            register(entriesByItem, itemId, entry);
+        }
+        for (long trigram : entry.query.trigrams) {
+            register(entriesByTrigram, trigram, entry);
+        }
+        for (String start : entry.query.wordStarts) {
+            register(entriesByWordStart, start, entry);
+        }
+    }
+
+    private void unregister(Entry entry) {
+        for (long itemId : entry.itemIds) {
+            unregister(entriesByItem, itemId, entry);
+        }
+        for (long trigram : entry.query.trigrams) {
+            unregister(entriesByTrigram, trigram, entry);
+        }
+        for (String start : entry.query.wordStarts) {
+            unregister(entriesByWordStart, start, entry);
+        }
+    }
+
+    // Множество меняется внутри compute: пустое удаляется атомарно с последним элементом
+    // и не может поглотить параллельное добавление. Читается оно без блокировки, поэтому конкурентное
+    private static <T> void register(Map<T, Set<Entry>> index, T token, Entry entry) {
+        index.compute(token, (key, set) -> {
+            Set<Entry> result = set == null ? ConcurrentHashMap.newKeySet() : set;
+            result.add(entry);
+            return result;
+        });
+    }
+
+    private static <T> void unregister(Map<T, Set<Entry>> index, T token, Entry entry) {
+        index.computeIfPresent(token, (key, set) -> {
+            set.remove(entry);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static void addAll(Set<Entry> target, Collection<Entry> source) {
+        if (source != null) {
+            target.addAll(source);
+        }
+    }
+
+    private record Key(String text, int page, int size) {
+    }
+
+    /**
+     * Слова и триграммы запроса. Текст, содержащий слово запроса, содержит и его начало из WORD_START_LENGTH
+     * символов, а текст, достаточно похожий по триграммам, делит с запросом хотя бы одну триграмму,
+     * поэтому обратных индексов по ним хватает, чтобы найти все страницы, которые может затронуть изменение.
+     */
+    private static final class Query {
+        static final int WORD_START_LENGTH = 3;
+
+        final String[] words;
+        final Set<String> wordStarts = new HashSet<>();
+        final long[] trigrams;
+
+        Query(String text) {
+            this.words = words(text);
+            for (String word : words) {
+                wordStarts.add(word.substring(0, Math.min(word.length(), WORD_START_LENGTH)));
+            }
+            this.trigrams = TrigramIndex.trigrams(text);
+        }
+
+        static String[] words(String text) {
+            return Arrays.stream(text.split("[^\\p{L}\\p{N}]+")).filter(word -> !word.isEmpty())
+                    .toArray(String[]::new);
+        }
+
+        // С запросом может совпасть текст, содержащий одно из его слов (поиск подстрокой и по префиксам)
+        // или достаточную долю его триграмм (поиск с опечатками). Лишний сброс безвреден, пропущенный — нет
+        boolean mayMatch(String text, Set<Long> textTrigrams, double minSimilarity) {
+            for (String word : words) {
+                if (text.contains(word)) {
+                    return true;
+                }
+            }
+            int shared = 0;
+            for (long trigram : trigrams) {
+                if (textTrigrams.contains(trigram)) {
+                    shared++;
+                }
+            }
+            return shared > 0 && shared >= minSimilarity * trigrams.length;
+        }
+    }
+
+    private static final class Entry {
+        final Key key;
+        final Query query;
+        final List<ItemDto> items;
+        final long[] itemIds;
+        final long loadedAt;
+
+        Entry(Key key, Query query, List<ItemDto> items, long loadedAt) {
+            this.key = key;
+            this.query = query;
+            this.items = items;
+            this.itemIds = items.stream().mapToLong(ItemDto::getId).sorted().toArray();
+            this.loadedAt = loadedAt;
+        }
+
+        boolean contains(Long itemId) {
+            return Arrays.binarySearch(itemIds, itemId) >= 0;
+        }
+    }
+
+    // Изменения, пришедшие во время поиска одной страницы; результат устарел, если изменение могло его затронуть
+    private static final class Loading {
+        final Query query;
+        final Set<Long> changedItems = new HashSet<>();
+        boolean matchingChange;
+        boolean done;
+
+        Loading(Query query) {
+            this.query = query;
+        }
+
+        synchronized void onItemChanged(Long itemId, String text, Set<Long> trigrams, double minSimilarity) {
+            if (done) {
+                return;
+            }
+            changedItems.add(itemId);
+            if (query.mayMatch(text, trigrams, minSimilarity)) {
+                matchingChange = true;
+            }
+        }
+
+        // Вызывается под блокировкой поиска
+        boolean isStale(Entry entry) {
+            return matchingChange || changedItems.stream().anyMatch(entry::contains);
+        }
+    }
+}
\ No newline at end of file
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.bulk.dto.BulkResultDto;
 import ru.practicum.shareit.item.dto.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -9,16 +11,27 @@ public interface ItemService {
 
     ItemDto update(Long itemId, ItemDto itemDto, Long userId);
 
+    List<BulkResultDto> updateAvailability(Long ownerId, List<Long> itemIds, boolean available);
+
     // теперь возвращает ItemResponseDto (с комментариями)
     ItemResponseDto getById(Long itemId);
 
     // теперь возвращает список ItemOwnerDto (с датами бронирований)
     List<ItemOwnerDto> getAllByOwner(Long ownerId);
 
-    List<ItemDto> search(String text);
+    // Только доступные вещи, по релевантности, если её умеет считать выбранный ItemSearch
+    List<ItemDto> search(String text, Integer page, Integer size);
+
+    List<ItemDto> searchAvailableBetween(String text, LocalDateTime from, LocalDateTime to, Integer page, Integer size);
 
     // новый метод для добавления комментария
     CommentDto addComment(Long itemId, Long userId, CommentCreateDto commentDto);
 
     ItemDetailedDto getById(Long itemId, Long userId);
+
+    List<FreeWindowDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    ItemOccupancyDto getOccupancy(Long itemId, int year);
+
+    List<ItemUtilizationDto> getUtilization(Long ownerId, LocalDateTime from, LocalDateTime to);
 }
\ No newline at end of file
@@ -1,21 +1,32 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.bulk.dto.BulkOutcome;
+import ru.practicum.shareit.bulk.dto.BulkResultDto;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDeletedEvent;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.time.Year;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,6 +38,24 @@ public class ItemServiceImpl implements ItemService {
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemOccupancyStore itemOccupancyStore;
+    private final ItemUtilizationAnalytics itemUtilizationAnalytics;
+    private final ItemSearch itemSearch;
+    private final ItemSearchCache itemSearchCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_ANALYTICS_DAYS = 366;
+
+    // Вещи удаляются в БД каскадом вместе с владельцем, поэтому событие публикуется за них, пока они ещё читаются
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onUserDeleted(UserDeletedEvent event) {
+        itemRepository.findByOwnerId(event.getUserId())
+                .forEach(item -> eventPublisher.publishEvent(ItemChangedEvent.of(item, ItemChangedEvent.Type.DELETED)));
+    }
 
     @Override
     @Transactional
@@ -36,6 +65,7 @@ public class ItemServiceImpl implements ItemService {
                         String.format("User with id %d not found", userId)));
         Item item = ItemMapper.toItem(itemDto, owner);
         item = itemRepository.save(item);
+        eventPublisher.publishEvent(ItemChangedEvent.of(item, ItemChangedEvent.Type.CREATED));
         return ItemMapper.toItemDto(item);
     }
 
@@ -60,9 +90,45 @@ public class ItemServiceImpl implements ItemService {
             item.setAvailable(itemDto.getAvailable());
         }
 
+        eventPublisher.publishEvent(ItemChangedEvent.of(item, ItemChangedEvent.Type.UPDATED));
         return ItemMapper.toItemDto(item);
     }
 
+    @Override
+    @Transactional
+    public List<BulkResultDto> updateAvailability(Long ownerId, List<Long> itemIds, boolean available) {
+        Set<Long> ids = new LinkedHashSet<>(itemIds);
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        Map<Long, BulkOutcome> outcomes = new LinkedHashMap<>();
+        List<Item> owned = new ArrayList<>();
+        for (Long id : ids) {
+            Item item = items.get(id);
+            if (item == null) {
+                outcomes.put(id, BulkOutcome.NOT_FOUND);
+            } else if (!item.getOwner().getId().equals(ownerId)) {
+                outcomes.put(id, BulkOutcome.FORBIDDEN);
+            } else {
+                outcomes.put(id, BulkOutcome.UPDATED);
+                owned.add(item);
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            itemRepository.updateAvailability(owned.stream().map(Item::getId).collect(Collectors.toList()),
+                    ownerId, available);
+            owned.forEach(item -> eventPublisher.publishEvent(
+                    ItemChangedEvent.of(item, ItemChangedEvent.Type.UPDATED).toBuilder()
+                            .available(available)
+                            .build()));
+        }
+
+        return outcomes.entrySet().stream()
+                .map(entry -> new BulkResultDto(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public ItemResponseDto getById(Long itemId) {
         Item item = itemRepository.findById(itemId)
@@ -83,25 +149,30 @@ public class ItemServiceImpl implements ItemService {
                         String.format("User with id %d not found", ownerId)));
 
         List<Item> items = itemRepository.findByOwnerId(ownerId);
+        if (items.isEmpty()) {
+            return List.of();
+        }
         LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingShortDto> lastBookings = new HashMap<>();
+        Map<Long, BookingShortDto> nextBookings = new HashMap<>();
+        splitLastAndNext(bookingRepository.findLastAndNextApprovedByItemOwnerId(ownerId, now), now,
+                lastBookings, nextBookings);
 
         return items.stream()
-                .map(item -> {
-                    BookingShortDto lastBooking = bookingRepository
-                            .findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(
-                                    item.getId(), now, BookingStatus.APPROVED)
-                            .map(this::toBookingShort)
-                            .orElse(null);
-                    BookingShortDto nextBooking = bookingRepository
-                            .findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
-                                    item.getId(), now, BookingStatus.APPROVED)
-                            .map(this::toBookingShort)
-                            .orElse(null);
-                    return ItemMapper.toItemOwnerDto(item, lastBooking, nextBooking);
-                })
+                .map(item -> ItemMapper.toItemOwnerDto(item,
+                        lastBookings.get(item.getId()), nextBookings.get(item.getId())))
                 .collect(Collectors.toList());
     }
 
+    // Запрос отдаёт не больше двух броней на вещь; начавшиеся до now — последние, остальные — следующие
+    private void splitLastAndNext(List<Booking> bookings, LocalDateTime now,
+                                  Map<Long, BookingShortDto> lastBookings, Map<Long, BookingShortDto> nextBookings) {
+        for (Booking booking : bookings) {
+            Map<Long, BookingShortDto> target = booking.getStart().isBefore(now) ? lastBookings : nextBookings;
+            target.put(booking.getItem().getId(), toBookingShort(booking));
+        }
+    }
+
     private BookingShortDto toBookingShort(Booking booking) {
         return BookingShortDto.builder()
                 .id(booking.getId())
@@ -111,13 +182,30 @@ public class ItemServiceImpl implements ItemService {
                 .build();
     }
 
+    // Без собственной транзакции: ответы из кэша и поиск ngram не обращаются к БД, остальные читают одним запросом
     @Override
-    public List<ItemDto> search(String text) {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<ItemDto> search(String text, Integer page, Integer size) {
+        PageRequest request = toPageRequest(page, size);
         if (text == null || text.isBlank()) {
             return List.of();
         }
-        return itemRepository.search(text).stream()
-                .filter(Item::getAvailable)
+        return itemSearchCache.get(text, request.getPageNumber(), request.getPageSize(), () -> itemSearch.search(
+                        text.trim(), request.getPageNumber(), request.getPageSize()).stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<ItemDto> searchAvailableBetween(String text, LocalDateTime from, LocalDateTime to,
+                                                Integer page, Integer size) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new ValidationException("Both from and to are required and from must be before to");
+        }
+        PageRequest request = toPageRequest(page, size);
+        String pattern = text == null ? "" : text.trim();
+        return itemRepository.searchAvailableBetween(pattern, from, to, BookingStatus.APPROVED,
+                        request.withSort(Sort.by("id"))).stream()
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
@@ -141,6 +229,7 @@ public class ItemServiceImpl implements ItemService {
         Comment comment = CommentMapper.toComment(itemId, author, commentDto.getText());
         comment.setItem(item);
         comment = commentRepository.save(comment);
+        eventPublisher.publishEvent(CommentAddedEvent.of(comment));
         return CommentMapper.toCommentDto(comment);
     }
 
@@ -159,18 +248,77 @@ public class ItemServiceImpl implements ItemService {
         LocalDateTime now = LocalDateTime.now();
 
         if (userId != null && userId.equals(item.getOwner().getId())) {
-            lastBooking = bookingRepository
-                    .findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(
-                            itemId, now, BookingStatus.APPROVED)
-                    .map(this::toBookingShort)
-                    .orElse(null);
-            nextBooking = bookingRepository
-                    .findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
-                            itemId, now, BookingStatus.APPROVED)
-                    .map(this::toBookingShort)
-                    .orElse(null);
+            Map<Long, BookingShortDto> lastBookings = new HashMap<>();
+            Map<Long, BookingShortDto> nextBookings = new HashMap<>();
+            splitLastAndNext(bookingRepository.findLastAndNextApprovedByItemId(itemId, now), now,
+                    lastBookings, nextBookings);
+            lastBooking = lastBookings.get(itemId);
+            nextBooking = nextBookings.get(itemId);
         }
 
         return ItemMapper.toItemDetailedDto(item, comments, lastBooking, nextBooking);
     }
+
+    @Override
+    public List<FreeWindowDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Parameter from must be before to");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException(String.format("Item with id %d not found", itemId));
+        }
+        return bookingIntervalIndex.freeWindows(itemId, from, to);
+    }
+
+    @Override
+    public ItemOccupancyDto getOccupancy(Long itemId, int year) {
+        int currentYear = Year.now().getValue();
+        if (Math.abs(year - currentYear) > ItemOccupancyStore.MAX_YEARS_FROM_NOW) {
+            throw new ValidationException(String.format("Year must be between %d and %d",
+                    currentYear - ItemOccupancyStore.MAX_YEARS_FROM_NOW,
+                    currentYear + ItemOccupancyStore.MAX_YEARS_FROM_NOW));
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException(String.format("Item with id %d not found", itemId));
+        }
+        BitSet occupied = itemOccupancyStore.get(itemId, year);
+        StringBuilder days = new StringBuilder(Year.of(year).length());
+        for (int day = 0; day < Year.of(year).length(); day++) {
+            days.append(occupied.get(day) ? '1' : '0');
+        }
+        return ItemOccupancyDto.builder()
+                .itemId(itemId)
+                .year(year)
+                .days(days.toString())
+                .build();
+    }
+
+    @Override
+    public List<ItemUtilizationDto> getUtilization(Long ownerId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Parameter from must be before to");
+        }
+        if (from.plusDays(MAX_ANALYTICS_DAYS).isBefore(to)) {
+            throw new ValidationException(
+                    String.format("Analytics period must not exceed %d days", MAX_ANALYTICS_DAYS));
+        }
+        if (!userRepository.existsById(ownerId)) {
+            throw new NotFoundException(String.format("User with id %d not found", ownerId));
+        }
+        return itemUtilizationAnalytics.get(ownerId, from, to);
+    }
+
+    // Без page и size результат отдаётся целиком, как до появления страниц
+    private static PageRequest toPageRequest(Integer page, Integer size) {
+        if (page == null && size == null) {
+            return PageRequest.of(0, Integer.MAX_VALUE);
+        }
+        int pageNumber = page == null ? 0 : page;
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageNumber < 0 || pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new ValidationException(
+                    String.format("Page must be non-negative and size between 1 and %d", MAX_PAGE_SIZE));
+        }
+        return PageRequest.of(pageNumber, pageSize);
+    }
 }
\ No newline at end of file
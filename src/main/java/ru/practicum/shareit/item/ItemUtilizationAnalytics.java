@@ -0,0 +1,133 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.BookingStatusChangedEvent;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.item.dto.ItemUtilizationDto;
+import ru.practicum.shareit.item.model.BookedInterval;
+import ru.practicum.shareit.item.model.ItemBookingCounts;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Загрузка вещей владельца за период. Счётчики считает группировка в БД, занятые дни и долю времени —
+ * параллельный проход по интервалам подтверждённых броней. Результат кэшируется по владельцу и периоду
+ * и сбрасывается после каждого изменения броней или вещей владельца.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemUtilizationAnalytics {
+
+    // Как и в ItemOccupancyStore: другие узлы не сбрасывают этот кэш, поэтому он живёт недолго
+    private static final long CACHE_TTL_MILLIS = 60_000;
+    private static final int MAX_CACHED_OWNERS = 1_000;
+    private static final int MAX_PERIODS_PER_OWNER = 10;
+
+    private final ItemRepository itemRepository;
+    // Сброс заменяет запись владельца целиком: расчёт, начатый до сброса, допишет результат в уже
+    // отсоединённую запись, и его никто не прочитает. Отдельный счётчик поколений для этого не нужен
+    private final BoundedCache<Long, OwnerUtilizations> cache = new BoundedCache<>(MAX_CACHED_OWNERS);
+
+    public List<ItemUtilizationDto> get(Long ownerId, LocalDateTime from, LocalDateTime to) {
+        Period period = new Period(from, to);
+        OwnerUtilizations owner = cache.computeIfAbsent(ownerId, id -> new OwnerUtilizations());
+        List<ItemUtilizationDto> cached = owner.get(period);
+        if (cached != null) {
+            return cached;
+        }
+        List<ItemUtilizationDto> items = compute(ownerId, from, to);
+        owner.put(period, items);
+        return items;
+    }
+
+    @TransactionalEventListener
+    public void evictAfterBookingChange(BookingStatusChangedEvent event) {
+        cache.remove(event.getOwnerId());
+    }
+
+    @TransactionalEventListener
+    public void evictAfterItemChange(ItemChangedEvent event) {
+        cache.remove(event.getOwnerId());
+    }
+
+    private List<ItemUtilizationDto> compute(Long ownerId, LocalDateTime from, LocalDateTime to) {
+        List<ItemBookingCounts> counts = itemRepository.countBookingsByOwnerId(ownerId, from, to);
+        Map<Long, List<BookedInterval>> intervals = itemRepository.findApprovedIntervalsByOwnerId(ownerId, from, to)
+                .stream()
+                .collect(Collectors.groupingBy(BookedInterval::getItemId));
+        // Вещи независимы, поэтому список делится между потоками общего ForkJoinPool
+        return counts.parallelStream()
+                .map(itemCounts -> toDto(itemCounts, intervals.getOrDefault(itemCounts.getItemId(), List.of()),
+                        from, to))
+                .collect(Collectors.toList());
+    }
+
+    static ItemUtilizationDto toDto(ItemBookingCounts counts, List<BookedInterval> intervals,
+                                    LocalDateTime from, LocalDateTime to) {
+        LocalDate firstDay = from.toLocalDate();
+        BitSet days = new BitSet();
+        long bookedMillis = 0;
+        for (BookedInterval interval : intervals) {
+            LocalDateTime start = interval.getStart().isBefore(from) ? from : interval.getStart();
+            LocalDateTime end = interval.getEnd().isAfter(to) ? to : interval.getEnd();
+            // Подтверждённые брони одной вещи не пересекаются, поэтому длительности можно складывать
+            bookedMillis += Duration.between(start, end).toMillis();
+            days.set((int) ChronoUnit.DAYS.between(firstDay, start.toLocalDate()),
+                    (int) ChronoUnit.DAYS.between(firstDay, end.minusNanos(1).toLocalDate()) + 1);
+        }
+        long decided = counts.getApproved() + counts.getRejected();
+        return ItemUtilizationDto.builder()
+                .itemId(counts.getItemId())
+                .name(counts.getName())
+                .bookings(counts.getTotal())
+                .approvedBookings(counts.getApproved())
+                .rejectedBookings(counts.getRejected())
+                .approvalRate(decided == 0 ? null : (double) counts.getApproved() / decided)
+                .bookedDays((long) days.cardinality())
+                .occupancyRatio((double) bookedMillis / Duration.between(from, to).toMillis())
+                .build();
+    }
+
+    private record Period(LocalDateTime from, LocalDateTime to) {
+    }
+
+    private record CachedUtilization(List<ItemUtilizationDto> items, long loadedAt) {
+    }
+
+    // Периоды одного владельца; при переполнении вытесняется давно не читавшийся
+    private static final class OwnerUtilizations {
+
+        private final Map<Period, CachedUtilization> periods = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Period, CachedUtilization> eldest) {
+                return size() > MAX_PERIODS_PER_OWNER;
+            }
+        };
+
+        synchronized List<ItemUtilizationDto> get(Period period) {
+            CachedUtilization cached = periods.get(period);
+            if (cached == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - cached.loadedAt >= CACHE_TTL_MILLIS) {
+                periods.remove(period);
+                return null;
+            }
+            return cached.items;
+        }
+
+        synchronized void put(Period period, List<ItemUtilizationDto> items) {
+            periods.put(period, new CachedUtilization(items, System.currentTimeMillis()));
+        }
+    }
+}
\ No newline at end of file
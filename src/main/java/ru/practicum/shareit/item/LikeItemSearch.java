@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+// Поиск подстрокой без ранжирования, режим по умолчанию; страницы упорядочены по id
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.items.search.mode", havingValue = "like", matchIfMissing = true)
+public class LikeItemSearch implements ItemSearch {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, int page, int size) {
+        return itemRepository.searchAvailable(text, PageRequest.of(page, size, Sort.by("id")));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+package ru.practicum.shareit.item;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.change.ChangeSequencer;
+import ru.practicum.shareit.item.model.Item;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Поиск по индексу триграмм в памяти процесса: находит вещи и при опечатках в запросе и не обращается к БД.
+ * Индекс восстанавливается из файлов сегментов, после чего догружаются вещи, изменённые после сохранённой
+ * отметки. После коммита изменения вещь индексируется сразу, а фоновая догрузка по номерам изменений
+ * до {@link ChangeSequencer#safeSeq()} подбирает то, что не удалось проиндексировать после коммита,
+ * и изменения с других узлов; только она и сдвигает отметку, поэтому за отметкой пропусков нет.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.items.search.mode", havingValue = "ngram")
+public class NgramItemSearch implements ItemSearch {
+
+    private static final int CATCH_UP_BATCH_SIZE = 1000;
+    private static final Sort CATCH_UP_SORT = Sort.by("changeSeq", "id");
+    // Сегменты переписываются, когда устаревших версий больше, чем живых документов, плюс этот запас
+    private static final int COMPACTION_SLACK = 10_000;
+
+    private final ItemRepository itemRepository;
+    private final ChangeSequencer changeSequencer;
+    private final TransactionTemplate transactionTemplate;
+    private final TrigramSegmentStore store;
+    private final TrigramIndex index = new TrigramIndex();
+    private final double minSimilarity;
+    // Догрузку запускают и старт приложения, и планировщик
+    private final Object catchUpLock = new Object();
+
+    public NgramItemSearch(ItemRepository itemRepository,
+                           ChangeSequencer changeSequencer,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${shareit.items.search.ngram.dir:item-search-index}") Path dir,
+                           @Value("${shareit.items.search.ngram.segment-size-mb:64}") int segmentSizeMb,
+                           @Value("${shareit.items.search.ngram.min-similarity:0.3}") double minSimilarity) {
+        this.itemRepository = itemRepository;
+        this.changeSequencer = changeSequencer;
+        // После коммита ресурсы завершённой транзакции ещё привязаны к потоку, и её контекст сохраняемости
+        // вернул бы вещь без номера изменения, назначенного при коммите. Поэтому чтение идёт в новой транзакции
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.store = new TrigramSegmentStore(dir, segmentSizeMb * 1024 * 1024);
+        this.minSimilarity = minSimilarity;
+    }
+
+    @PostConstruct
+    void open() {
+        store.load().forEach(index::put);
+        index.compact();
+        log.info("Loaded {} items into search index from {} segment records", index.size(), store.recordCount());
+    }
+
+    // Удаления номеров изменений не получают: вещи, удалённые, пока процесс не работал, находятся сверкой с БД
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        removeDeleted();
+        catchUp();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.items.search.ngram.catch-up-ms:5000}",
+            initialDelayString = "${shareit.items.search.ngram.catch-up-ms:5000}")
+    public void refresh() {
+        try {
+            catchUp();
+            if (store.recordCount() > 2 * index.size() + COMPACTION_SLACK) {
+                compact();
+                log.info("Search index segments compacted to {} records", store.recordCount());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Search index refresh failed, will retry on next tick", e);
+        }
+    }
+
+    // Все изменения с номером не больше safeSeq уже закоммичены, поэтому после их загрузки отметку можно сдвинуть
+    void catchUp() {
+        synchronized (catchUpLock) {
+            long since = store.watermark();
+            long until = changeSequencer.safeSeq();
+            if (until <= since) {
+                return;
+            }
+            ScrollPosition position = ScrollPosition.keyset();
+            Window<Item> window;
+            int loaded = 0;
+            do {
+                ScrollPosition current = position;
+                window = transactionTemplate.execute(status -> itemRepository.findByChangeSeqBetween(
+                        since + 1, until, current, CATCH_UP_SORT, Limit.of(CATCH_UP_BATCH_SIZE)));
+                window.forEach(this::apply);
+                loaded += window.size();
+                if (!window.isEmpty()) {
+                    position = window.positionAt(window.size() - 1);
+                }
+            } while (window.hasNext());
+            store.saveWatermark(until);
+            if (loaded > 0) {
+                log.info("Search index caught up with {} items changed in ({}, {}]", loaded, since, until);
+            }
+        }
+    }
+
+    // Раньше ItemSearchCache: сброшенная страница кэша должна заполняться уже из обновлённого индекса
+    @Order(0)
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.getType() == ItemChangedEvent.Type.DELETED) {
+            remove(event.getItemId());
+            return;
+        }
+        try {
+            Optional<Item> item = transactionTemplate.execute(status -> itemRepository.findById(event.getItemId()));
+            item.ifPresentOrElse(this::apply, () -> remove(event.getItemId()));
+        } catch (RuntimeException e) {
+            // Номер изменения больше сохранённой отметки, поэтому вещь подберёт следующая догрузка
+            log.warn("Indexing item {} failed, catch-up will pick it up", event.getItemId(), e);
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, int page, int size) {
+        int offset = (int) Math.min(Integer.MAX_VALUE, (long) page * size);
+        return index.search(text, minSimilarity, offset, size).stream()
+                .map(NgramItemSearch::toItem)
+                .toList();
+    }
+
+    @PreDestroy
+    void close() {
+        store.close();
+    }
+
+    void removeDeleted() {
+        List<Long> indexed = index.documents().stream().map(TrigramIndex.Document::itemId).toList();
+        int removed = 0;
+        for (int from = 0; from < indexed.size(); from += CATCH_UP_BATCH_SIZE) {
+            List<Long> batch = indexed.subList(from, Math.min(from + CATCH_UP_BATCH_SIZE, indexed.size()));
+            Set<Long> existing = new HashSet<>(transactionTemplate.execute(status ->
+                    itemRepository.findIdsByIdIn(batch)));
+            for (Long itemId : batch) {
+                if (!existing.contains(itemId)) {
+                    remove(itemId);
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} deleted items from search index", removed);
+        }
+    }
+
+    private void apply(Item item) {
+        apply(new TrigramIndex.Document(item.getId(), item.getChangeSeq(), item.getName(), item.getDescription(),
+                item.getAvailable(), item.getRequestId()));
+    }
+
+    private void remove(long itemId) {
+        apply(TrigramIndex.Document.tombstone(itemId));
+    }
+
+    // Индекс и сегменты меняются вместе, чтобы порядок записей в сегментах совпадал с порядком версий в индексе
+    private synchronized void apply(TrigramIndex.Document document) {
+        if (index.put(document)) {
+            store.append(document);
+        }
+    }
+
+    // Под той же блокировкой, что и apply: надгробие, пришедшее во время сжатия, не потеряется ни в индексе,
+    // ни в сегментах
+    private synchronized void compact() {
+        store.compact(index::documents);
+        index.compact();
+    }
+
+    // Владелец в индексе не хранится; результаты поиска отдаются только через ItemMapper.toItemDto
+    private static Item toItem(TrigramIndex.Document document) {
+        return Item.builder()
+                .id(document.itemId())
+                .name(document.name())
+                .description(document.description())
+                .available(document.available())
+                .requestId(document.requestId())
+                .changeSeq(document.changeSeq())
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,251 @@
+package ru.practicum.shareit.item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс триграмм названия и описания вещей. Каждая версия документа получает новый номер,
+ * больший всех прежних, поэтому списки вхождений триграмм — массивы int, отсортированные одним добавлением в конец.
+ * Сходство запроса с документом — доля триграмм запроса, найденных в документе, поэтому опечатка в слове портит
+ * лишь несколько триграмм из многих. Номер заменённой версии освобождается, а его вхождения пропускаются
+ * до сжатия, которое перенумеровывает документы; чтение идёт под общей блокировкой, запись — под эксклюзивной.
+ * Удалённая вещь остаётся в индексе надгробием без триграмм, чтобы её старая версия, прочитанная позже,
+ * не вернулась; сжатие убирает и надгробия — оно идёт вместе со сжатием сегментов, где старых версий больше нет.
+ */
+final class TrigramIndex {
+
+    private final Map<Long, Integer> docNumbers = new HashMap<>();
+    // По номеру документа; null — номер заменённой версии
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int live;
+
+    /**
+     * Добавляет или заменяет документ вещи. Версия старше уже проиндексированной и любая версия удалённой
+     * вещи игнорируются, поэтому повторная загрузка тех же изменений безвредна.
+     */
+    boolean put(Document document) {
+        long[] trigrams = trigrams(document.name() + " " + document.description());
+        lock.writeLock().lock();
+        try {
+            Integer previousNo = docNumbers.get(document.itemId());
+            if (previousNo != null) {
+                Document previous = entries.get(previousNo).document;
+                if (previous.deleted() || previous.changeSeq() > document.changeSeq()) {
+                    return false;
+                }
+                entries.set(previousNo, null);
+                live--;
+            }
+            int docNo = entries.size();
+            entries.add(new Entry(document, trigrams));
+            docNumbers.put(document.itemId(), docNo);
+            if (!document.deleted()) {
+                live++;
+            }
+            for (long trigram : trigrams) {
+                postings.computeIfAbsent(trigram, key -> new IntList()).add(docNo);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Доступные вещи со сходством не ниже minSimilarity: по убыванию сходства, при равенстве — более короткие
+     * документы, затем по id.
+     */
+    List<Document> search(String text, double minSimilarity, int offset, int limit) {
+        long[] query = trigrams(text);
+        if (query.length == 0) {
+            return List.of();
+        }
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // Списки вхождений отсортированы, поэтому слияние выдаёт все вхождения документа подряд:
+            // число общих триграмм считается без счётчика на каждый документ индекса
+            PriorityQueue<Cursor> heads = new PriorityQueue<>(query.length, Comparator.comparingInt(Cursor::current));
+            for (long trigram : query) {
+                IntList docs = postings.get(trigram);
+                if (docs != null) {
+                    heads.add(new Cursor(docs));
+                }
+            }
+            while (!heads.isEmpty()) {
+                int docNo = heads.peek().current();
+                int shared = 0;
+                while (!heads.isEmpty() && heads.peek().current() == docNo) {
+                    Cursor cursor = heads.poll();
+                    shared++;
+                    if (cursor.advance()) {
+                        heads.add(cursor);
+                    }
+                }
+                Entry entry = entries.get(docNo);
+                double similarity = (double) shared / query.length;
+                if (entry != null && entry.document.available() && similarity >= minSimilarity) {
+                    matches.add(new Match(entry.document, similarity, entry.trigrams.length));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches.stream()
+                .sorted(Comparator.comparingDouble(Match::similarity).reversed()
+                        .thenComparingInt(Match::length)
+                        .thenComparingLong(match -> match.document().itemId()))
+                .skip(offset)
+                .limit(limit)
+                .map(Match::document)
+                .toList();
+    }
+
+    // Число неудалённых вещей
+    int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Неудалённые вещи; надгробия нужны, только пока в сегментах лежат старые версии
+    Collection<Document> documents() {
+        lock.readLock().lock();
+        try {
+            return entries.stream()
+                    .filter(entry -> entry != null && !entry.document.deleted())
+                    .map(Entry::document)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Перенумеровывает неудалённые вещи подряд, отбрасывая номера заменённых версий и надгробия.
+     * Новые номера идут в прежнем порядке, поэтому списки вхождений остаются отсортированными.
+     */
+    void compact() {
+        lock.writeLock().lock();
+        try {
+            int[] renumbered = new int[entries.size()];
+            List<Entry> kept = new ArrayList<>(live);
+            for (int docNo = 0; docNo < entries.size(); docNo++) {
+                Entry entry = entries.get(docNo);
+                if (entry == null || entry.document.deleted()) {
+                    renumbered[docNo] = -1;
+                    if (entry != null) {
+                        docNumbers.remove(entry.document.itemId());
+                    }
+                } else {
+                    renumbered[docNo] = kept.size();
+                    docNumbers.put(entry.document.itemId(), kept.size());
+                    kept.add(entry);
+                }
+            }
+            entries.clear();
+            entries.addAll(kept);
+            postings.values().removeIf(docs -> docs.renumber(renumbered) == 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Различные триграммы текста без учёта регистра. Как в pg_trgm, каждое слово дополняется
+     * двумя пробелами слева и одним справа, чтобы начало слова весило больше середины.
+     */
+    static long[] trigrams(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .flatMapToLong(word -> {
+                    String padded = "  " + word + " ";
+                    long[] result = new long[padded.length() - 2];
+                    for (int i = 0; i < result.length; i++) {
+                        result[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16)
+                                | padded.charAt(i + 2);
+                    }
+                    return Arrays.stream(result);
+                })
+                .distinct()
+                .toArray();
+    }
+
+    record Document(long itemId, long changeSeq, String name, String description, boolean available,
+                    Long requestId) {
+
+        // Номер надгробия больше любого номера изменения, поэтому оно побеждает версии в любом порядке чтения
+        static Document tombstone(long itemId) {
+            return new Document(itemId, Long.MAX_VALUE, "", "", false, null);
+        }
+
+        boolean deleted() {
+            return changeSeq == Long.MAX_VALUE;
+        }
+    }
+
+    private record Entry(Document document, long[] trigrams) {
+    }
+
+    private record Match(Document document, double similarity, int length) {
+    }
+
+    // Возрастающий список номеров документов без упаковки в Integer
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        // Заменяет номера по таблице, выбрасывая отрицательные; возвращает новый размер
+        int renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int docNo = renumbered[values[i]];
+                if (docNo >= 0) {
+                    values[kept++] = docNo;
+                }
+            }
+            size = kept;
+            if (size < values.length / 4) {
+                values = Arrays.copyOf(values, Math.max(4, size));
+            }
+            return size;
+        }
+    }
+
+    private static final class Cursor {
+        final IntList docs;
+        int index;
+
+        Cursor(IntList docs) {
+            this.docs = docs;
+        }
+
+        int current() {
+            return docs.values[index];
+        }
+
+        boolean advance() {
+            return ++index < docs.size;
+        }
+    }
+}
\ No newline at end of file
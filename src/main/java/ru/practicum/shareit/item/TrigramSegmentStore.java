@@ -0,0 +1,256 @@
+package ru.practicum.shareit.item;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Хранит документы индекса триграмм в отображённых в память файлах сегментов фиксированного размера.
+ * Каждое изменение дописывается записью [длина][документ][CRC32] в конец текущего сегмента, заполненный
+ * сегмент сменяется следующим. При чтении последняя запись вещи побеждает, а чтение сегмента останавливается
+ * на нулевой длине или неверной контрольной сумме, так что недописанная при падении запись отбрасывается.
+ * Триграммы не сохраняются: пересчитать их из текста дешевле, чем читать запросы к БД при старте.
+ * Рядом хранится отметка: номер изменения, до которого включительно все изменения уже есть в сегментах.
+ */
+final class TrigramSegmentStore implements Closeable {
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".seg";
+    private static final String WATERMARK = "watermark";
+    // длина, itemId, changeSeq, available, requestId, две длины строк и CRC32
+    private static final int OVERHEAD = 4 + 8 + 8 + 1 + 8 + 4 + 4 + 4;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private int segmentNo;
+    private MappedByteBuffer active;
+    private int recordCount;
+    private long watermark = -1;
+
+    TrigramSegmentStore(Path dir, int segmentBytes) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Читает все сегменты по порядку и открывает последний для дозаписи. Документы возвращаются
+     * в порядке записи, включая устаревшие версии.
+     */
+    synchronized List<TrigramIndex.Document> load() {
+        List<TrigramIndex.Document> documents = new ArrayList<>();
+        try {
+            Files.createDirectories(dir);
+            List<Path> segments = segments();
+            for (Path segment : segments) {
+                segmentNo = number(segment);
+                active = map(segment);
+                readRecords(active, documents);
+            }
+            if (active == null) {
+                roll();
+            }
+            Path watermarkFile = dir.resolve(WATERMARK);
+            if (Files.exists(watermarkFile)) {
+                watermark = Long.parseLong(Files.readString(watermarkFile).trim());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        recordCount = documents.size();
+        return documents;
+    }
+
+    synchronized void append(TrigramIndex.Document document) {
+        byte[] record = encode(document);
+        try {
+            // Четыре байта после записи остаются нулями и отмечают конец сегмента
+            if (active.remaining() < record.length + 4) {
+                roll();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        active.put(record);
+        recordCount++;
+    }
+
+    /**
+     * Переписывает живые документы в новые сегменты и удаляет старые. Под блокировкой только переключается
+     * текущий сегмент: дозапись продолжается в новый, а снимок документов берётся уже после переключения,
+     * так что каждая версия попадает либо в снимок, либо в новый сегмент. Снимок пишется без блокировки
+     * в сегменты с номером нового текущего и вторым номером части — при чтении они идут перед ним.
+     * Порядок чтения версий не важен: индекс оставляет наибольший номер изменения. Если процесс упадёт
+     * до удаления старых сегментов, при следующем чтении те же версии просто загрузятся дважды.
+     */
+    void compact(Supplier<Collection<TrigramIndex.Document>> liveDocuments) {
+        try {
+            List<Path> obsolete;
+            int base;
+            synchronized (this) {
+                obsolete = segments();
+                roll();
+                base = segmentNo;
+                recordCount = 0;
+            }
+            int written = 0;
+            int part = 0;
+            MappedByteBuffer buffer = null;
+            for (TrigramIndex.Document document : liveDocuments.get()) {
+                byte[] record = encode(document);
+                if (buffer == null || buffer.remaining() < record.length + 4) {
+                    if (buffer != null) {
+                        buffer.force();
+                    }
+                    part++;
+                    buffer = map(dir.resolve(String.format("%s%05d-%05d%s", PREFIX, base, part, SUFFIX)));
+                }
+                buffer.put(record);
+                written++;
+            }
+            if (buffer != null) {
+                buffer.force();
+            }
+            for (Path segment : obsolete) {
+                Files.delete(segment);
+            }
+            synchronized (this) {
+                recordCount += written;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Номер изменения, до которого включительно всё сохранено; -1, если отметки ещё нет
+    synchronized long watermark() {
+        return watermark;
+    }
+
+    /**
+     * Сбрасывает текущий сегмент на диск и только потом атомарно заменяет файл отметки,
+     * поэтому отметка никогда не опережает сохранённые записи.
+     */
+    synchronized void saveWatermark(long seq) {
+        try {
+            active.force();
+            Path tmp = dir.resolve(WATERMARK + ".tmp");
+            Files.writeString(tmp, Long.toString(seq));
+            Files.move(tmp, dir.resolve(WATERMARK), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            watermark = seq;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Записей во всех сегментах, включая устаревшие версии документов
+    synchronized int recordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (active != null) {
+            active.force();
+        }
+    }
+
+    private void roll() throws IOException {
+        if (active != null) {
+            active.force();
+        }
+        segmentNo++;
+        active = map(dir.resolve(String.format("%s%05d%s", PREFIX, segmentNo, SUFFIX)));
+    }
+
+    // Файл сразу растягивается до размера сегмента; недописанный хвост читается как нули
+    private MappedByteBuffer map(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentBytes, channel.size()));
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(PREFIX)
+                            && file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    // Сегменты снимка segment-NNNNN-PPPPP.seg несут номер текущего сегмента, созданного при сжатии
+    private static int number(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()).split("-")[0]);
+    }
+
+    // Оставляет позицию буфера в начале первой непрочитанной записи, чтобы дозапись затёрла битый хвост
+    private static void readRecords(MappedByteBuffer buffer, List<TrigramIndex.Document> documents) {
+        while (buffer.remaining() >= OVERHEAD) {
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            if (length < OVERHEAD - 8 || length > buffer.remaining() - 8) {
+                return;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(start + 4, length));
+            if ((int) crc.getValue() != buffer.getInt(start + 4 + length)) {
+                return;
+            }
+            buffer.position(start + 4);
+            long itemId = buffer.getLong();
+            long changeSeq = buffer.getLong();
+            boolean available = buffer.get() != 0;
+            long requestId = buffer.getLong();
+            String name = readString(buffer);
+            String description = readString(buffer);
+            buffer.position(start + 4 + length + 4);
+            documents.add(new TrigramIndex.Document(itemId, changeSeq, name, description, available,
+                    requestId < 0 ? null : requestId));
+        }
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private byte[] encode(TrigramIndex.Document document) {
+        byte[] name = document.name().getBytes(StandardCharsets.UTF_8);
+        byte[] description = document.description().getBytes(StandardCharsets.UTF_8);
+        int length = OVERHEAD - 8 + name.length + description.length;
+        if (length + 8 + 4 > segmentBytes) {
+            throw new IllegalArgumentException("Item " + document.itemId() + " does not fit into index segment");
+        }
+        ByteBuffer record = ByteBuffer.allocate(length + 8)
+                .putInt(length)
+                .putLong(document.itemId())
+                .putLong(document.changeSeq())
+                .put((byte) (document.available() ? 1 : 0))
+                .putLong(document.requestId() == null ? -1 : document.requestId())
+                .putInt(name.length)
+                .put(name)
+                .putInt(description.length)
+                .put(description);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, length);
+        return record.putInt((int) crc.getValue()).array();
+    }
+}
\ No newline at end of file
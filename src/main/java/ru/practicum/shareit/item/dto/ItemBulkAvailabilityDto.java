@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemBulkAvailabilityDto {
+    @NotEmpty
+    @Size(max = 1000)
+    List<@NotNull Long> itemIds;
+
+    @NotNull
+    Boolean available;
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.AccessLevel;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemUtilizationDto {
+    Long itemId;
+    String name;
+    // все брони, пересекающие период, в любом статусе
+    Long bookings;
+    Long approvedBookings;
+    Long rejectedBookings;
+    // доля подтверждённых среди рассмотренных владельцем; null, если рассмотренных нет
+    Double approvalRate;
+    // календарные дни периода, которых касается хотя бы одна подтверждённая бронь
+    Long bookedDays;
+    // доля времени периода, занятая подтверждёнными бронями
+    Double occupancyRatio;
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интервал подтверждённой брони вещи без загрузки самой сущности Booking.
+ */
+@Value
+public class BookedInterval {
+    Long itemId;
+    LocalDateTime start;
+    LocalDateTime end;
+}
\ No newline at end of file
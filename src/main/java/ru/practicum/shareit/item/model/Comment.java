@@ -3,6 +3,7 @@ package ru.practicum.shareit.item.model;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.ColumnDefault;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
@@ -32,4 +33,9 @@ public class Comment {
 
     @Column(nullable = false)
     LocalDateTime created;
+
+    // Номер последнего изменения строки в ленте /changes; назначается при коммите, см. ChangeSequencer
+    @ColumnDefault("0")
+    @Column(name = "change_seq", nullable = false, insertable = false, updatable = false)
+    Long changeSeq;
 }
\ No newline at end of file
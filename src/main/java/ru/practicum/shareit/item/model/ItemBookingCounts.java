@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Value;
+
+/**
+ * Счётчики броней одной вещи за период, как их возвращает группировка в ItemRepository.
+ */
+@Value
+public class ItemBookingCounts {
+    Long itemId;
+    String name;
+    Long total;
+    Long approved;
+    Long rejected;
+}
\ No newline at end of file
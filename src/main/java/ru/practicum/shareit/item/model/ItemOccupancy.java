@@ -0,0 +1,40 @@
+package ru.practicum.shareit.item.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.io.Serializable;
+
+/**
+ * Битовая карта занятости вещи за год: бит i соответствует (i + 1)-му дню года.
+ */
+@Entity
+@Table(name = "item_occupancy")
+@IdClass(ItemOccupancy.Key.class)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemOccupancy {
+    @Id
+    @Column(name = "item_id")
+    Long itemId;
+
+    @Id
+    @Column(name = "occupancy_year")
+    Integer year;
+
+    @Column(nullable = false)
+    byte[] days;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Key implements Serializable {
+        Long itemId;
+        Integer year;
+    }
+}
\ No newline at end of file
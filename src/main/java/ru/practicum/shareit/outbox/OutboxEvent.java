@@ -0,0 +1,39 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие, записанное в одной транзакции с изменением и ожидающее отправки ретранслятором.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "aggregate_type", nullable = false, length = 32)
+    String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    Long aggregateId;
+
+    @Column(name = "event_type", nullable = false, length = 64)
+    String eventType;
+
+    // JSON с данными события; комментарий до 2000 символов после экранирования может быть длиннее любого VARCHAR
+    @Column(nullable = false, columnDefinition = "text")
+    String payload;
+
+    @Column(nullable = false)
+    LocalDateTime created;
+}
\ No newline at end of file
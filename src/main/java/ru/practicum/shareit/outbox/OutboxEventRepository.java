@@ -0,0 +1,20 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Блокировка строк пачки не даёт второму экземпляру ретранслятора отправить те же события раньше первого
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<OutboxEvent> findByOrderByIdAsc(Limit limit);
+
+    // Блокировка строки вещи до вставки её события, см. OutboxWriter.lockItem
+    @Query(nativeQuery = true, value = "select id from items where id = :itemId for update")
+    List<Long> lockItem(Long itemId);
+}
\ No newline at end of file
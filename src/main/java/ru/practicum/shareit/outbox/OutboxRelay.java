@@ -0,0 +1,70 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Пересылает события из outbox получателю пачками в порядке id.
+ * Пачка удаляется в той же транзакции после успешной отправки: при сбое между отправкой и коммитом
+ * события уйдут повторно (at-least-once), но не потеряются и не обгонят более ранние события той же сущности.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSink sink,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${shareit.outbox.relay.batch-size:1000}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.relay.delay-ms:200}")
+    public void relay() {
+        try {
+            // Пока пачки полные, очередь не разобрана — не ждём следующего запуска
+            while (relayBatch() == batchSize) {
+                log.debug("Outbox batch of {} events relayed, continuing", batchSize);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, will retry on next run", e);
+        }
+    }
+
+    int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.findByOrderByIdAsc(Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            try {
+                sink.publish(batch);
+            } catch (Exception e) {
+                throw new IllegalStateException("Outbox sink rejected a batch", e);
+            }
+            outboxEventRepository.deleteAllByIdInBatch(batch.stream()
+                    .map(OutboxEvent::getId)
+                    .collect(Collectors.toList()));
+            return batch.size();
+        });
+        return relayed == null ? 0 : relayed;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.outbox;
+
+import java.util.List;
+
+/**
+ * Получатель событий из outbox. События приходят пачкой в порядке записи;
+ * при сбое пачка будет отправлена повторно, поэтому получатель должен переносить дубликаты.
+ */
+public interface OutboxSink {
+    void publish(List<OutboxEvent> events) throws Exception;
+}
\ No newline at end of file
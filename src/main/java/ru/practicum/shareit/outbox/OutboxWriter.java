@@ -0,0 +1,75 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingStatusChangedEvent;
+import ru.practicum.shareit.item.CommentAddedEvent;
+import ru.practicum.shareit.item.ItemChangedEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Записывает доменные события в outbox. Слушатели синхронные, поэтому строка попадает
+ * в ту же транзакцию, что и изменение: без коммита изменения нет и события.
+ * Ретранслятор отправляет события в порядке id, а id выдаётся при вставке, а не при коммите. Поэтому события
+ * одной сущности вставляются под блокировкой её строки: следующая транзакция получит id только после коммита
+ * предыдущей. Строку брони к моменту события уже блокирует условный UPDATE статуса или она только что вставлена;
+ * строку вещи изменение блокирует не всегда (комментарий, ещё не сброшенный UPDATE), её блокирует lockItem.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    static final String BOOKING = "BOOKING";
+    static final String ITEM = "ITEM";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        String type = event.getPreviousStatus() == null ? "BOOKING_CREATED" : "BOOKING_" + event.getStatus();
+        append(BOOKING, event.getBookingId(), type, event);
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.getType() != ItemChangedEvent.Type.CREATED) {
+            lockItem(event.getItemId());
+        }
+        append(ITEM, event.getItemId(), "ITEM_" + event.getType(), event);
+    }
+
+    // Комментарий относится к вещи, так его событие упорядочено с остальными событиями вещи
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCommentAdded(CommentAddedEvent event) {
+        lockItem(event.getItemId());
+        append(ITEM, event.getItemId(), "COMMENT_ADDED", event);
+    }
+
+    private void lockItem(Long itemId) {
+        outboxEventRepository.lockItem(itemId);
+    }
+
+    private void append(String aggregateType, Long aggregateId, String eventType, Object payload) {
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .aggregateType(aggregateType)
+                    .aggregateId(aggregateId)
+                    .eventType(eventType)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .created(LocalDateTime.now())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox event " + eventType, e);
+        }
+    }
+}
\ No newline at end of file
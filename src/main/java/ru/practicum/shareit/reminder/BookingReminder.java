@@ -0,0 +1,39 @@
+package ru.practicum.shareit.reminder;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+public class BookingReminder {
+    Type type;
+    Long bookingId;
+    Long itemId;
+    Long bookerId;
+    Long ownerId;
+    LocalDateTime start;
+    LocalDateTime end;
+
+    public enum Type {
+        START,
+        END
+    }
+
+    public static BookingReminder of(Type type, BookingTimes times) {
+        return BookingReminder.builder()
+                .type(type)
+                .bookingId(times.getBookingId())
+                .itemId(times.getItemId())
+                .bookerId(times.getBookerId())
+                .ownerId(times.getOwnerId())
+                .start(times.getStart())
+                .end(times.getEnd())
+                .build();
+    }
+
+    public LocalDateTime getEventTime() {
+        return type == Type.START ? start : end;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,178 @@
+package ru.practicum.shareit.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStatusChangedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Напоминает о начале и окончании подтверждённых броней за заданное время до события.
+ * Таймеры живут в иерархическом колесе в памяти; в него загружаются только события ближайшего горизонта,
+ * а следующий отрезок догружается, когда до границы загруженного остаётся полгоризонта. При старте
+ * таймеры восстанавливаются из БД, после коммита подтверждения брони колесо обновляется точечно.
+ * Подтверждённую бронь отменить нельзя, поэтому поставленные таймеры не снимаются.
+ * Колёса есть на каждом узле, а отправляет напоминание тот, кто первым отметил его в {@link ReminderClaimStore}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingReminderScheduler {
+
+    private static final int WHEEL_SIZE = 512;
+
+    private final BookingRepository bookingRepository;
+    private final ReminderNotifier notifier;
+    private final ReminderClaimStore claimStore;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration startLead;
+    private final Duration endLead;
+    private final Duration horizon;
+    private final TimingWheel<BookingReminder> wheel;
+    private final ConcurrentHashMap<Long, Timers> timers = new ConcurrentHashMap<>();
+    // События раньше этой границы уже загружены; граница сдвигается до чтения БД, см. loadUntil
+    private volatile LocalDateTime loadedUntil = LocalDateTime.MIN;
+
+    public BookingReminderScheduler(BookingRepository bookingRepository,
+                                    ReminderNotifier notifier,
+                                    ReminderClaimStore claimStore,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${shareit.reminders.start-lead-ms:3600000}") long startLeadMillis,
+                                    @Value("${shareit.reminders.end-lead-ms:3600000}") long endLeadMillis,
+                                    @Value("${shareit.reminders.horizon-ms:86400000}") long horizonMillis,
+                                    @Value("${shareit.reminders.tick-ms:1000}") long tickMillis) {
+        this.bookingRepository = bookingRepository;
+        this.notifier = notifier;
+        this.claimStore = claimStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.startLead = Duration.ofMillis(startLeadMillis);
+        this.endLead = Duration.ofMillis(endLeadMillis);
+        this.horizon = Duration.ofMillis(horizonMillis);
+        // События загружаются не меньше чем за полгоризонта; напоминание с большим упреждением опоздало бы
+        if (startLead.compareTo(horizon.dividedBy(2)) >= 0 || endLead.compareTo(horizon.dividedBy(2)) >= 0) {
+            throw new IllegalArgumentException("Reminder leads must be shorter than half of the horizon");
+        }
+        this.wheel = new TimingWheel<>(tickMillis, WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        LocalDateTime now = LocalDateTime.now();
+        loadUntil(now, now.plus(horizon));
+        log.info("Recovered {} booking reminders up to {}", wheel.size(), loadedUntil);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.reminders.tick-ms:1000}")
+    public void tick() {
+        advance(LocalDateTime.now());
+    }
+
+    void advance(LocalDateTime now) {
+        try {
+            if (loadedUntil != LocalDateTime.MIN && !now.plus(horizon.dividedBy(2)).isBefore(loadedUntil)) {
+                loadUntil(loadedUntil, now.plus(horizon));
+                // Отметка нужна, пока событие может заново попасть в колесо какого-нибудь узла
+                claimStore.purgeSentBefore(now.minus(horizon));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Loading booking reminders failed, will retry on next tick", e);
+        }
+        wheel.advance(toMillis(now), this::fire);
+    }
+
+    @TransactionalEventListener
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        if (event.getStatus() == BookingStatus.APPROVED) {
+            schedule(new BookingTimes(event.getBookingId(), event.getItemId(), event.getBookerId(),
+                    event.getOwnerId(), event.getStart(), event.getEnd()), LocalDateTime.now(), loadedUntil);
+        }
+    }
+
+    int pendingCount() {
+        return wheel.size();
+    }
+
+    void loadUntil(LocalDateTime from, LocalDateTime to) {
+        // Граница сдвигается до запроса: бронь, подтверждённая после начала чтения, попадёт в колесо
+        // из события, а подтверждённая раньше — из запроса. Если сработает и то и другое, таймер заменится
+        loadedUntil = to;
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<BookingTimes> bookings = bookingRepository.streamTimesByStatusBetween(
+                    BookingStatus.APPROVED, from, to)) {
+                bookings.forEach(times -> schedule(times, from, to));
+            }
+        });
+    }
+
+    // Ставит таймеры событий брони, попадающих в [from, to); уже наступившее напоминание сработает на ближайшем тике
+    private void schedule(BookingTimes times, LocalDateTime from, LocalDateTime to) {
+        boolean start = !times.getStart().isBefore(from) && times.getStart().isBefore(to);
+        boolean end = !times.getEnd().isBefore(from) && times.getEnd().isBefore(to);
+        if (!start && !end) {
+            return;
+        }
+        timers.compute(times.getBookingId(), (id, existing) -> {
+            Timers result = existing == null ? new Timers() : existing;
+            if (start) {
+                result.start = replace(result.start, BookingReminder.of(BookingReminder.Type.START, times),
+                        times.getStart().minus(startLead));
+            }
+            if (end) {
+                result.end = replace(result.end, BookingReminder.of(BookingReminder.Type.END, times),
+                        times.getEnd().minus(endLead));
+            }
+            return result;
+        });
+    }
+
+    private TimingWheel.Timer<BookingReminder> replace(TimingWheel.Timer<BookingReminder> previous,
+                                                       BookingReminder reminder, LocalDateTime at) {
+        if (previous != null) {
+            previous.cancel();
+        }
+        return wheel.schedule(toMillis(at), reminder);
+    }
+
+    private void fire(BookingReminder reminder) {
+        timers.computeIfPresent(reminder.getBookingId(), (id, existing) -> {
+            if (existing.start != null && existing.start.payload() == reminder) {
+                existing.start = null;
+            }
+            if (existing.end != null && existing.end.payload() == reminder) {
+                existing.end = null;
+            }
+            return existing.start == null && existing.end == null ? null : existing;
+        });
+        try {
+            if (claimStore.claim(reminder, LocalDateTime.now())) {
+                notifier.send(reminder);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Sending reminder failed for booking {}", reminder.getBookingId(), e);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static final class Timers {
+        TimingWheel.Timer<BookingReminder> start;
+        TimingWheel.Timer<BookingReminder> end;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.reminder;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сроки подтверждённой брони и её участники — всё, что нужно для напоминаний, без загрузки сущностей.
+ */
+@Value
+public class BookingTimes {
+    Long bookingId;
+    Long itemId;
+    Long bookerId;
+    Long ownerId;
+    LocalDateTime start;
+    LocalDateTime end;
+}
\ No newline at end of file
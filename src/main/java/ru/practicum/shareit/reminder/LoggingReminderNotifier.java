@@ -0,0 +1,17 @@
+package ru.practicum.shareit.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.reminders.notifier", havingValue = "log", matchIfMissing = true)
+public class LoggingReminderNotifier implements ReminderNotifier {
+
+    @Override
+    public void send(BookingReminder reminder) {
+        log.info("Booking {} reminder: booking {} of item {} by user {} at {}", reminder.getType(),
+                reminder.getBookingId(), reminder.getItemId(), reminder.getBookerId(), reminder.getEventTime());
+    }
+}
\ No newline at end of file
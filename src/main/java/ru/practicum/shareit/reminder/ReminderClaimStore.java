@@ -0,0 +1,36 @@
+package ru.practicum.shareit.reminder;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Отметки об отправленных напоминаниях в БД. Таймеры одной брони стоят в колесе каждого узла,
+ * поэтому отправляет напоминание только узел, первым вставивший его строку; остальные его пропускают.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReminderClaimStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Вызывается вне транзакции: в PostgreSQL нарушение первичного ключа прерывает транзакцию целиком.
+     */
+    public boolean claim(BookingReminder reminder, LocalDateTime now) {
+        try {
+            jdbcTemplate.update("INSERT INTO booking_reminders_sent (booking_id, reminder_type, sent_at) " +
+                    "VALUES (?, ?, ?)", reminder.getBookingId(), reminder.getType().name(), now);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public int purgeSentBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM booking_reminders_sent WHERE sent_at < ?", cutoff);
+    }
+}
\ No newline at end of file
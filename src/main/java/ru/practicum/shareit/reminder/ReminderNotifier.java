@@ -0,0 +1,10 @@
+package ru.practicum.shareit.reminder;
+
+/**
+ * Получатель напоминаний о начале и окончании брони. Вызывается из потока, продвигающего колесо таймеров,
+ * поэтому должен возвращаться быстро. После перезапуска напоминания о ещё не наступивших событиях
+ * восстанавливаются из БД и могут прийти повторно, поэтому получатель должен переносить дубликаты.
+ */
+public interface ReminderNotifier {
+    void send(BookingReminder reminder);
+}
\ No newline at end of file
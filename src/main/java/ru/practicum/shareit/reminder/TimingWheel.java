@@ -0,0 +1,175 @@
+package ru.practicum.shareit.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Иерархическое колесо таймеров. Уровень L состоит из wheelSize ячеек по wheelSize^L тиков;
+ * таймер кладётся на самый нижний уровень, чей оборот покрывает его задержку. На границе ячейки
+ * верхнего уровня её таймеры спускаются ниже, на нижнем уровне ячейка текущего тика срабатывает целиком.
+ * Вставка и отмена — O(1): ячейка — двусвязный список, таймер знает свою ячейку.
+ * Все операции идут под монитором колеса.
+ */
+final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<Bucket<T>[]> levels = new ArrayList<>();
+    // Таймеры, чей срок наступил к моменту вставки; срабатывают при ближайшем продвижении
+    private final Bucket<T> due = new Bucket<>();
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTick = startMillis / tickMillis;
+        addLevel();
+    }
+
+    synchronized Timer<T> schedule(long deadlineMillis, T payload) {
+        // Округление вверх: таймер может сработать на тик позже срока, но никогда раньше
+        Timer<T> timer = new Timer<>(this, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), payload);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Продвигает колесо до nowMillis и передаёт в action полезную нагрузку сработавших таймеров.
+     * action вызывается после выхода из монитора, чтобы медленный получатель не задерживал вставки.
+     */
+    void advance(long nowMillis, Consumer<T> action) {
+        List<T> expired = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = nowMillis / tickMillis;
+            due.drainTo(expired);
+            while (currentTick < targetTick) {
+                currentTick++;
+                long span = 1;
+                for (int level = 1; level < levels.size(); level++) {
+                    span *= wheelSize;
+                    if (currentTick % span != 0) {
+                        break;
+                    }
+                    // Граница ячейки уровня: её таймеры переезжают ниже или срабатывают
+                    List<Timer<T>> cascaded = new ArrayList<>();
+                    levels.get(level)[(int) ((currentTick / span) % wheelSize)].drainTimersTo(cascaded);
+                    cascaded.forEach(this::place);
+                }
+                levels.get(0)[(int) (currentTick % wheelSize)].drainTo(expired);
+                due.drainTo(expired);
+            }
+            size -= expired.size();
+        }
+        expired.forEach(action);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized boolean cancel(Timer<T> timer) {
+        if (timer.bucket == null) {
+            return false;
+        }
+        timer.bucket.remove(timer);
+        size--;
+        return true;
+    }
+
+    private void place(Timer<T> timer) {
+        long delay = timer.deadlineTick - currentTick;
+        if (delay <= 0) {
+            due.add(timer);
+            return;
+        }
+        int level = 0;
+        long span = 1;
+        while (delay >= span * wheelSize) {
+            span *= wheelSize;
+            level++;
+            if (level == levels.size()) {
+                addLevel();
+            }
+        }
+        levels.get(level)[(int) ((timer.deadlineTick / span) % wheelSize)].add(timer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addLevel() {
+        Bucket<T>[] buckets = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new Bucket<>();
+        }
+        levels.add(buckets);
+    }
+
+    static final class Timer<T> {
+        final TimingWheel<T> wheel;
+        final long deadlineTick;
+        final T payload;
+        Bucket<T> bucket;
+        Timer<T> prev;
+        Timer<T> next;
+
+        Timer(TimingWheel<T> wheel, long deadlineTick, T payload) {
+            this.wheel = wheel;
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        T payload() {
+            return payload;
+        }
+
+        boolean cancel() {
+            return wheel.cancel(this);
+        }
+    }
+
+    private static final class Bucket<T> {
+        Timer<T> head;
+
+        void add(Timer<T> timer) {
+            timer.bucket = this;
+            timer.prev = null;
+            timer.next = head;
+            if (head != null) {
+                head.prev = timer;
+            }
+            head = timer;
+        }
+
+        void remove(Timer<T> timer) {
+            if (timer.prev != null) {
+                timer.prev.next = timer.next;
+            } else {
+                head = timer.next;
+            }
+            if (timer.next != null) {
+                timer.next.prev = timer.prev;
+            }
+            timer.bucket = null;
+            timer.prev = null;
+            timer.next = null;
+        }
+
+        void drainTo(List<T> payloads) {
+            while (head != null) {
+                Timer<T> timer = head;
+                remove(timer);
+                payloads.add(timer.payload);
+            }
+        }
+
+        void drainTimersTo(List<Timer<T>> timers) {
+            while (head != null) {
+                Timer<T> timer = head;
+                remove(timer);
+                timers.add(timer);
+            }
+        }
+    }
+}
\ No newline at end of file
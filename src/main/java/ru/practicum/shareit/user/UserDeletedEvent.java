@@ -0,0 +1,12 @@
+package ru.practicum.shareit.user;
+
+import lombok.Value;
+
+/**
+ * Публикуется UserServiceImpl перед удалением пользователя, пока его данные ещё в БД: вещи, брони
+ * и комментарии пользователя удаляются каскадом и собственных событий не публикуют.
+ */
+@Value
+public class UserDeletedEvent {
+    Long userId;
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.ConflictException;
@@ -14,6 +15,7 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -67,6 +69,7 @@ public class UserServiceImpl implements UserService {
             throw new NotFoundException(
                     String.format("User with id %d not found", id));
         }
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
         userRepository.deleteById(id);
     }
 }
\ No newline at end of file
@@ -15,6 +15,7 @@ CREATE TABLE IF NOT EXISTS items (
     is_available BOOLEAN NOT NULL,
     owner_id BIGINT NOT NULL,
     request_id BIGINT,
+    change_seq BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT pk_item PRIMARY KEY (id),
     CONSTRAINT fk_item_owner FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE
 );
@@ -27,12 +28,23 @@ CREATE TABLE IF NOT EXISTS bookings (
     item_id BIGINT NOT NULL,
     booker_id BIGINT NOT NULL,
     status VARCHAR(20) NOT NULL,
+    change_seq BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT pk_booking PRIMARY KEY (id),
     CONSTRAINT fk_booking_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
     CONSTRAINT fk_booking_booker FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE,
     CONSTRAINT check_dates CHECK (start_date < end_date)
 );
 
+-- Поиск свободных вещей на период проверяет пересечения по вещи и датам
+CREATE INDEX IF NOT EXISTS idx_bookings_item_dates ON bookings (item_id, start_date, end_date);
+
+-- Постраничные брони одной вещи в порядке start desc, id desc
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+
+-- Выборки и сводки по автору бронирования и по владельцу вещей
+CREATE INDEX IF NOT EXISTS idx_bookings_booker ON bookings (booker_id);
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+
 -- Таблица комментариев
 CREATE TABLE IF NOT EXISTS comments (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -40,7 +52,51 @@ CREATE TABLE IF NOT EXISTS comments (
     item_id BIGINT NOT NULL,
     author_id BIGINT NOT NULL,
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    change_seq BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT pk_comment PRIMARY KEY (id),
     CONSTRAINT fk_comment_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
     CONSTRAINT fk_comment_author FOREIGN KEY (author_id) REFERENCES users (id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+-- Подневная занятость вещей: по биту на день года
+CREATE TABLE IF NOT EXISTS item_occupancy (
+    item_id BIGINT NOT NULL,
+    occupancy_year INTEGER NOT NULL,
+    days BYTEA NOT NULL,
+    CONSTRAINT pk_item_occupancy PRIMARY KEY (item_id, occupancy_year),
+    CONSTRAINT fk_item_occupancy_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE
+);
+
+-- События для внешних систем, записываются в одной транзакции с изменением (transactional outbox)
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    aggregate_type VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload TEXT NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_outbox_event PRIMARY KEY (id)
+);
+
+-- Лента изменений /changes: выборки по номеру последнего изменения строки и последовательность, из которой он выдаётся
+CREATE INDEX IF NOT EXISTS idx_items_change_seq ON items (change_seq);
+CREATE INDEX IF NOT EXISTS idx_bookings_change_seq ON bookings (change_seq);
+CREATE INDEX IF NOT EXISTS idx_comments_change_seq ON comments (change_seq);
+
+CREATE SEQUENCE IF NOT EXISTS change_seq;
+
+-- Квитанции пишущих транзакций, которые уже берут номера изменений, но ещё не закоммитились (см. ChangeSequencer)
+CREATE TABLE IF NOT EXISTS change_tickets (
+    seq BIGINT NOT NULL,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_change_tickets PRIMARY KEY (seq)
+);
+
+-- Отправленные напоминания о бронях: строку вставляет узел, который отправляет напоминание (см. ReminderClaimStore)
+CREATE TABLE IF NOT EXISTS booking_reminders_sent (
+    booking_id BIGINT NOT NULL,
+    reminder_type VARCHAR(10) NOT NULL,
+    sent_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_booking_reminders_sent PRIMARY KEY (booking_id, reminder_type)
+);
+CREATE INDEX IF NOT EXISTS idx_booking_reminders_sent_at ON booking_reminders_sent (sent_at);
\ No newline at end of file
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * H2-аналог триггера trg_booking_item_approved_overlap из schema-postgresql.sql:
+ * запрещает пересекающиеся APPROVED-брони одной вещи.
+ */
+public class ApprovedBookingOverlapTrigger implements Trigger {
+
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    private static final String OVERLAP_QUERY = "SELECT 1 FROM bookings WHERE item_id = ? AND status = 'APPROVED' " +
+            "AND (CAST(? AS BIGINT) IS NULL OR id <> ?) AND start_date < ? AND end_date > ?";
+
+    private int idIndex;
+    private int itemIdIndex;
+    private int startIndex;
+    private int endIndex;
+    private int statusIndex;
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) throws SQLException {
+        // Порядок колонок задаёт Hibernate, поэтому позиции берём из метаданных
+        Map<String, Integer> positions = new HashMap<>();
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet columns = metaData.getColumns(null, schemaName, tableName, null)) {
+            while (columns.next()) {
+                positions.put(columns.getString("COLUMN_NAME").toLowerCase(), columns.getInt("ORDINAL_POSITION") - 1);
+            }
+        }
+        idIndex = positions.get("id");
+        itemIdIndex = positions.get("item_id");
+        startIndex = positions.get("start_date");
+        endIndex = positions.get("end_date");
+        statusIndex = positions.get("status");
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        if (newRow == null || !BookingStatus.APPROVED.name().equals(newRow[statusIndex])) {
+            return;
+        }
+        try (PreparedStatement statement = conn.prepareStatement(OVERLAP_QUERY)) {
+            statement.setObject(1, newRow[itemIdIndex]);
+            statement.setObject(2, newRow[idIndex]);
+            statement.setObject(3, newRow[idIndex]);
+            statement.setObject(4, newRow[endIndex]);
+            statement.setObject(5, newRow[startIndex]);
+            try (ResultSet overlapping = statement.executeQuery()) {
+                if (overlapping.next()) {
+                    throw new SQLException("Approved bookings of item " + newRow[itemIdIndex] + " overlap",
+                            EXCLUSION_VIOLATION);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
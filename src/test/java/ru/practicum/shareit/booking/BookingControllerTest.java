@@ -9,16 +9,33 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchRequestDto;
+import ru.practicum.shareit.booking.dto.BookingBulkApproveDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingRecurrenceDto;
+import ru.practicum.shareit.booking.dto.BookingRecurringRequestDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.dto.RecurrenceFrequency;
+import ru.practicum.shareit.bulk.dto.BulkOutcome;
+import ru.practicum.shareit.bulk.dto.BulkResultDto;
+import ru.practicum.shareit.export.ExportFormat;
+import ru.practicum.shareit.export.ExportService;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -36,6 +53,12 @@ class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private BookingEventStream bookingEventStream;
+
     private BookingDto bookingDto;
     private BookingRequestDto requestDto;
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
@@ -75,6 +98,60 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value("WAITING"));
     }
 
+    @Test
+    void createBatchShouldReturnBookingPerItem() throws Exception {
+        BookingBatchRequestDto batch = new BookingBatchRequestDto(List.of(1L, 2L),
+                requestDto.getStart(), requestDto.getEnd());
+        when(bookingService.createBatch(batch, USER_ID)).thenReturn(List.of(bookingDto, bookingDto));
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header(USER_ID_HEADER, USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void createBatchShouldRejectEmptyItemList() throws Exception {
+        BookingBatchRequestDto batch = new BookingBatchRequestDto(List.of(),
+                requestDto.getStart(), requestDto.getEnd());
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header(USER_ID_HEADER, USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void createRecurringShouldRejectRuleWithoutFrequency() throws Exception {
+        BookingRecurringRequestDto recurring = new BookingRecurringRequestDto(1L, requestDto.getStart(),
+                requestDto.getEnd(), new BookingRecurrenceDto(null, 3, null));
+
+        mockMvc.perform(post("/bookings/recurring")
+                        .header(USER_ID_HEADER, USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(recurring)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void createRecurringShouldReturnCreatedSeries() throws Exception {
+        BookingRecurringRequestDto recurring = new BookingRecurringRequestDto(1L, requestDto.getStart(),
+                requestDto.getEnd(), new BookingRecurrenceDto(RecurrenceFrequency.WEEKLY, 2, null));
+        when(bookingService.createRecurring(recurring, USER_ID)).thenReturn(List.of(bookingDto, bookingDto));
+
+        mockMvc.perform(post("/bookings/recurring")
+                        .header(USER_ID_HEADER, USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(recurring)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
     @Test
     void approveBookingShouldReturnApprovedBooking() throws Exception {
         bookingDto.setStatus(BookingStatus.APPROVED);
@@ -87,6 +164,31 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value("APPROVED"));
     }
 
+    @Test
+    void approveAllShouldReturnOutcomePerBooking() throws Exception {
+        when(bookingService.approveAll(USER_ID, List.of(1L, 2L), true)).thenReturn(List.of(
+                new BulkResultDto(1L, BulkOutcome.UPDATED),
+                new BulkResultDto(2L, BulkOutcome.CONFLICT)));
+
+        mockMvc.perform(patch("/bookings/bulk")
+                        .header(USER_ID_HEADER, USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookingBulkApproveDto(List.of(1L, 2L), true))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].outcome").value("UPDATED"))
+                .andExpect(jsonPath("$[1].id").value(2L))
+                .andExpect(jsonPath("$[1].outcome").value("CONFLICT"));
+    }
+
+    @Test
+    void approveAllShouldReturnBadRequestWhenIdsEmpty() throws Exception {
+        mockMvc.perform(patch("/bookings/bulk")
+                        .header(USER_ID_HEADER, USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookingBulkApproveDto(List.of(), true))))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getBookingByIdShouldReturnBooking() throws Exception {
         when(bookingService.getById(anyLong(), anyLong())).thenReturn(bookingDto);
@@ -98,21 +200,22 @@ class BookingControllerTest {
     }
 
     @Test
-    void getUserBookingsShouldReturnList() throws Exception {
-        when(bookingService.getUserBookings(anyLong(), any(BookingState.class)))
-                .thenReturn(List.of(bookingDto));
+    void getUserBookingsShouldReturnWholeListWithoutLimitAndCursor() throws Exception {
+        when(bookingService.getUserBookings(anyLong(), any(BookingState.class), isNull(), isNull()))
+                .thenReturn(new BookingPageDto(List.of(bookingDto), null));
 
         mockMvc.perform(get("/bookings")
                         .header(USER_ID_HEADER, USER_ID)
                         .param("state", "ALL"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$[0].id").value(1L));
     }
 
     @Test
     void getOwnerBookingsShouldReturnList() throws Exception {
-        when(bookingService.getOwnerBookings(anyLong(), any(BookingState.class)))
-                .thenReturn(List.of(bookingDto));
+        when(bookingService.getOwnerBookings(anyLong(), any(BookingState.class), isNull(), isNull()))
+                .thenReturn(new BookingPageDto(List.of(bookingDto), null));
 
         mockMvc.perform(get("/bookings/owner")
                         .header(USER_ID_HEADER, USER_ID)
@@ -120,4 +223,64 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1L));
     }
+
+    @Test
+    void getOwnerBookingsShouldPassCursorAndReturnNextCursorHeader() throws Exception {
+        when(bookingService.getOwnerBookings(USER_ID, BookingState.WAITING, "abc", 20))
+                .thenReturn(new BookingPageDto(List.of(bookingDto), "def"));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header(USER_ID_HEADER, USER_ID)
+                        .param("state", "WAITING")
+                        .param("cursor", "abc")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "def"))
+                .andExpect(jsonPath("$[0].id").value(1L));
+    }
+
+    @Test
+    void getOwnerSummaryShouldReturnCounts() throws Exception {
+        when(bookingService.getOwnerSummary(USER_ID)).thenReturn(new BookingSummaryDto(5L, 1L, 2L, 2L, 1L, 0L));
+
+        mockMvc.perform(get("/bookings/owner/summary")
+                        .header(USER_ID_HEADER, USER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.all").value(5))
+                .andExpect(jsonPath("$.waiting").value(1))
+                .andExpect(jsonPath("$.rejected").value(0));
+    }
+
+    @Test
+    void exportOwnerBookingsShouldStreamCsv() throws Exception {
+        StreamingResponseBody body = out -> out.write("id\r\n1\r\n".getBytes(StandardCharsets.UTF_8));
+        when(exportService.exportOwnerBookings(USER_ID, ExportFormat.CSV)).thenReturn(body);
+
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export")
+                        .header(USER_ID_HEADER, USER_ID)
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(content().string("id\r\n1\r\n"));
+    }
+
+    @Test
+    void streamShouldPushBookingEventsAsServerSentEvents() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(bookingEventStream.subscribe(USER_ID)).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/bookings/stream")
+                        .header(USER_ID_HEADER, USER_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name("BOOKING_APPROVED").data("{}"));
+        emitter.complete();
+
+        assertTrue(result.getResponse().getContentType().startsWith("text/event-stream"));
+        assertTrue(result.getResponse().getContentAsString().contains("event:BOOKING_APPROVED"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,216 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class BookingEventStreamTest {
+
+    private static final int BUFFER_SIZE = 4;
+    private static final int SENDER_THREADS = 2;
+    private static final int WRITER_THREADS = 4;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private CountDownLatch sendGate;
+    private BookingEventStream stream;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        sendGate = new CountDownLatch(0);
+        stream = new BookingEventStream(userRepository, 60_000, BUFFER_SIZE, SENDER_THREADS, WRITER_THREADS, 200) {
+            @Override
+            SseEmitter createEmitter(long timeout) {
+                RecordingEmitter emitter = new RecordingEmitter(sendGate);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        sendGate.countDown();
+        stream.shutdown();
+    }
+
+    @Test
+    void statusChangeShouldReachBookerAndOwnerOnly() throws InterruptedException {
+        RecordingEmitter booker = (RecordingEmitter) stream.subscribe(1L);
+        RecordingEmitter owner = (RecordingEmitter) stream.subscribe(2L);
+        RecordingEmitter stranger = (RecordingEmitter) stream.subscribe(3L);
+
+        stream.onBookingStatusChanged(event(BookingStatus.WAITING, BookingStatus.APPROVED));
+
+        assertTrue(booker.awaitSends(1));
+        assertTrue(owner.awaitSends(1));
+        assertTrue(booker.events.get(0).contains("event:BOOKING_APPROVED"));
+        assertTrue(stranger.events.isEmpty());
+    }
+
+    @Test
+    void newBookingShouldBeSentAsCreatedEvent() throws InterruptedException {
+        RecordingEmitter owner = (RecordingEmitter) stream.subscribe(2L);
+
+        stream.onBookingStatusChanged(event(null, BookingStatus.WAITING));
+
+        assertTrue(owner.awaitSends(1));
+        assertTrue(owner.events.get(0).contains("event:BOOKING_CREATED"));
+    }
+
+    @Test
+    void slowSubscriberShouldBeDisconnectedWhenBufferOverflows() throws InterruptedException {
+        sendGate = new CountDownLatch(1);
+        RecordingEmitter slow = (RecordingEmitter) stream.subscribe(1L);
+
+        // первое событие забирает отправка, застрявшая на сокете; следующие заполняют очередь.
+        // Публикующий поток не ждёт застрявшую запись, хотя закрыть соединение до её конца нельзя
+        for (int i = 0; i < BUFFER_SIZE + 2; i++) {
+            stream.onBookingStatusChanged(event(BookingStatus.WAITING, BookingStatus.APPROVED));
+        }
+        assertEquals(0, stream.subscriberCount());
+
+        sendGate.countDown();
+        assertTrue(slow.closed.await(5, TimeUnit.SECONDS));
+        assertTrue(slow.events.size() <= 1);
+    }
+
+    @Test
+    void overflowDuringShortWriteShouldCloseAfterIt() throws InterruptedException {
+        sendGate = new CountDownLatch(1);
+        RecordingEmitter slow = (RecordingEmitter) stream.subscribe(1L);
+
+        for (int i = 0; i < BUFFER_SIZE + 2; i++) {
+            stream.onBookingStatusChanged(event(BookingStatus.WAITING, BookingStatus.APPROVED));
+        }
+        // Запись, если успела начаться, заканчивается в срок: соединение закрывается без ошибки,
+        // остальные события не уходят
+        sendGate.countDown();
+
+        assertTrue(slow.closed.await(5, TimeUnit.SECONDS));
+        assertTrue(slow.completed);
+        assertTrue(slow.events.size() <= 1);
+    }
+
+    @Test
+    void stalledSubscribersShouldBeDroppedWithoutBlockingOthers() throws InterruptedException {
+        // Зависших клиентов столько же, сколько потоков отправки: без срока записи они заняли бы их все
+        sendGate = new CountDownLatch(1);
+        List<RecordingEmitter> stalled = List.of(
+                (RecordingEmitter) stream.subscribe(1L), (RecordingEmitter) stream.subscribe(1L));
+        CountDownLatch stalledGate = sendGate;
+        sendGate = new CountDownLatch(0);
+        RecordingEmitter owner = (RecordingEmitter) stream.subscribe(2L);
+
+        stream.onBookingStatusChanged(event(BookingStatus.WAITING, BookingStatus.APPROVED));
+        stream.onBookingStatusChanged(event(BookingStatus.APPROVED, BookingStatus.CANCELED));
+
+        assertTrue(owner.awaitSends(2));
+        assertTrue(awaitSubscriberCount(1));
+        // Пока запись висит на сокете, монитор эмиттера занят и закрыть соединение нельзя; поток отправки
+        // этого не ждёт и обслуживает остальных
+        stream.onBookingStatusChanged(event(BookingStatus.CANCELED, BookingStatus.CANCELED));
+        assertTrue(owner.awaitSends(3));
+        for (RecordingEmitter emitter : stalled) {
+            assertEquals(1, emitter.failed.getCount());
+        }
+
+        // Запись обрывается (здесь — отпускается), и соединение закрывает поток записи
+        stalledGate.countDown();
+        for (RecordingEmitter emitter : stalled) {
+            assertTrue(emitter.failed.await(5, TimeUnit.SECONDS));
+            assertEquals(1, emitter.events.size());
+        }
+        assertEquals(1, stream.subscriberCount());
+    }
+
+    @Test
+    void subscribeShouldThrowNotFoundExceptionForUnknownUser() {
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> stream.subscribe(999L));
+    }
+
+    private boolean awaitSubscriberCount(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (stream.subscriberCount() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return stream.subscriberCount() == count;
+    }
+
+    private BookingStatusChangedEvent event(BookingStatus previous, BookingStatus status) {
+        return BookingStatusChangedEvent.builder()
+                .bookingId(10L)
+                .itemId(20L)
+                .bookerId(1L)
+                .ownerId(2L)
+                .previousStatus(previous)
+                .status(status)
+                .build();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch gate;
+        final CountDownLatch failed = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        // Как и настоящая запись в сокет: держит монитор эмиттера и не прерывается
+        @Override
+        public synchronized void send(SseEventBuilder builder) {
+            boolean interrupted = false;
+            while (gate.getCount() > 0) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            events.add(text.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+            closed.countDown();
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            failed.countDown();
+            closed.countDown();
+        }
+
+        boolean awaitSends(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (events.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return events.size() >= count;
+        }
+    }
+}
\ No newline at end of file
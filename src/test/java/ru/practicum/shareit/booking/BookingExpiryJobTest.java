@@ -0,0 +1,113 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "shareit.bookings.expiry.enabled=true",
+        "shareit.bookings.expiry.chunk-size=2",
+        "shareit.bookings.expiry.max-chunks-per-run=2",
+        "shareit.bookings.expiry.initial-delay-ms=3600000"
+})
+@Import({BookingExpiryJob.class, SimpleMeterRegistry.class})
+@RecordApplicationEvents
+class BookingExpiryJobTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingExpiryJob job;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = em.persist(User.builder().name("Owner").email("owner@test.com").build());
+        booker = em.persist(User.builder().name("Booker").email("booker@test.com").build());
+        item = em.persist(Item.builder().name("Дрель").description("Мощная дрель").available(true)
+                .owner(owner).build());
+    }
+
+    @Test
+    void expireShouldRejectOnlyWaitingBookingsWhoseStartHasPassed() {
+        Long expired = persistBooking(now.minusHours(1), BookingStatus.WAITING);
+        Long future = persistBooking(now.plusHours(1), BookingStatus.WAITING);
+        Long approved = persistBooking(now.minusHours(3), BookingStatus.APPROVED);
+        em.flush();
+
+        assertEquals(1, job.expire(now));
+
+        assertEquals(BookingStatus.REJECTED, statusOf(expired));
+        assertEquals(BookingStatus.WAITING, statusOf(future));
+        assertEquals(BookingStatus.APPROVED, statusOf(approved));
+        List<BookingStatusChangedEvent> published = events.stream(BookingStatusChangedEvent.class).toList();
+        assertEquals(1, published.size());
+        assertEquals(expired, published.get(0).getBookingId());
+        assertEquals(owner.getId(), published.get(0).getOwnerId());
+        assertEquals(BookingStatus.WAITING, published.get(0).getPreviousStatus());
+        assertEquals(BookingStatus.REJECTED, published.get(0).getStatus());
+    }
+
+    @Test
+    void expireShouldStopAfterMaxChunksAndFinishOnNextRun() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            ids.add(persistBooking(now.minusHours(i * 2L), BookingStatus.WAITING));
+        }
+        em.flush();
+        // реестр общий для тестов с этим контекстом, поэтому сравниваем приращения
+        double expiredBefore = meterRegistry.counter("shareit.bookings.expiry.expired").count();
+        double chunksBefore = meterRegistry.counter("shareit.bookings.expiry.chunks").count();
+
+        assertEquals(4, job.expire(now));
+        assertEquals(1, job.expire(now));
+        assertEquals(0, job.expire(now));
+
+        ids.forEach(id -> assertEquals(BookingStatus.REJECTED, statusOf(id)));
+        assertEquals(5, meterRegistry.counter("shareit.bookings.expiry.expired").count() - expiredBefore);
+        assertEquals(3, meterRegistry.counter("shareit.bookings.expiry.chunks").count() - chunksBefore);
+    }
+
+    private BookingStatus statusOf(Long bookingId) {
+        return bookingRepository.findById(bookingId).orElseThrow().getStatus();
+    }
+
+    private Long persistBooking(LocalDateTime start, BookingStatus status) {
+        return em.persist(Booking.builder()
+                .start(start)
+                .end(start.plusHours(1))
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build()).getId();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,197 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.dto.BookingBatchRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingRecurrenceDto;
+import ru.practicum.shareit.booking.dto.BookingRecurringRequestDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.RecurrenceFrequency;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({BookingServiceImpl.class, BookingMapper.class, BookingJdbcWriter.class})
+class BookingFetchPlanTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private BookingService bookingService;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private Long bookingId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = em.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        owner = em.persist(User.builder().name("Owner").email("owner@test.com").build());
+        booker = em.persist(User.builder().name("Booker").email("booker@test.com").build());
+    }
+
+    @Test
+    void ownerBookingsShouldCostConstantStatementsRegardlessOfRowCount() {
+        persistBookings(2);
+        long smallPage = countStatements(() -> bookingService.getOwnerBookings(
+                owner.getId(), BookingState.ALL, null, 100));
+
+        persistBookings(30);
+        long largePage = countStatements(() -> bookingService.getOwnerBookings(
+                owner.getId(), BookingState.ALL, null, 100));
+
+        // поиск пользователя + одна выборка бронирований вместе с item и booker
+        assertEquals(2, smallPage);
+        assertEquals(smallPage, largePage);
+    }
+
+    @Test
+    void userBookingsShouldNotLoadAssociationsLazily() {
+        persistBookings(10);
+
+        long statements = countStatements(() -> {
+            BookingPageDto page = bookingService.getUserBookings(booker.getId(), BookingState.ALL, null, 100);
+            assertEquals(10, page.getBookings().size());
+            page.getBookings().forEach(dto -> assertEquals("Дрель", dto.getItem().getName()));
+        });
+
+        assertEquals(2, statements);
+    }
+
+    @Test
+    void userBookingsWithoutLimitShouldReturnWholeList() {
+        persistBookings(150);
+
+        BookingPageDto page = bookingService.getUserBookings(booker.getId(), BookingState.ALL, null, null);
+
+        assertEquals(150, page.getBookings().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void itemBookingsShouldCostItemLookupAndSinglePageQuery() {
+        persistBookings(20);
+        Item item = em.find(Booking.class, bookingId).getItem();
+
+        long statements = countStatements(() -> {
+            BookingPageDto page = bookingService.getItemBookings(owner.getId(), item.getId(), BookingState.ALL, null, 5);
+            assertEquals(1, page.getBookings().size());
+            assertEquals("Booker", page.getBookings().get(0).getBooker().getName());
+        });
+
+        // поиск вещи + одна выборка страницы вместе с item и booker
+        assertEquals(2, statements);
+    }
+
+    @Test
+    void createBatchShouldReadAllItemsInSingleStatement() {
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            itemIds.add(em.persist(Item.builder().name("Палатка").description("Двухместная").available(true)
+                    .owner(owner).build()).getId());
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        long statements = countStatements(() -> assertEquals(3, bookingService.createBatch(
+                new BookingBatchRequestDto(itemIds, start, start.plusDays(2)), booker.getId()).size()));
+
+        // пользователь + все вещи одним запросом с блокировкой + по вставке на бронь
+        assertEquals(2 + 3, statements);
+    }
+
+    @Test
+    void createRecurringShouldNotCostStatementsPerOccurrence() {
+        Item item = em.persist(Item.builder().name("Байдарка").description("Двухместная").available(true)
+                .owner(owner).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingRecurringRequestDto recurring = new BookingRecurringRequestDto(item.getId(), start, start.plusHours(3),
+                new BookingRecurrenceDto(RecurrenceFrequency.DAILY, 30, null));
+
+        long statements = countStatements(() -> {
+            List<BookingDto> created = bookingService.createRecurring(recurring, booker.getId());
+            assertEquals(30, created.size());
+            assertTrue(created.stream().allMatch(dto -> dto.getId() != null));
+        });
+
+        // пользователь, вещь и проверка пересечений; вставки идут одним JDBC-батчем мимо Hibernate
+        assertEquals(3, statements);
+        assertEquals(30, em.getEntityManager()
+                .createQuery("select count(b) from Booking b where b.item.id = :itemId", Long.class)
+                .setParameter("itemId", item.getId()).getSingleResult());
+    }
+
+    @Test
+    void getByIdShouldCostSingleStatement() {
+        persistBookings(1);
+
+        long statements = countStatements(() -> {
+            BookingDto dto = bookingService.getById(bookingId, owner.getId());
+            assertEquals("Booker", dto.getBooker().getName());
+        });
+
+        assertEquals(1, statements);
+    }
+
+    @Test
+    void approveShouldCostConditionalUpdateAndSingleSelect() {
+        persistBookings(1);
+
+        long statements = countStatements(() -> {
+            BookingDto dto = bookingService.approve(bookingId, owner.getId(), true);
+            assertEquals(BookingStatus.APPROVED, dto.getStatus());
+        });
+
+        assertEquals(2, statements);
+    }
+
+    @Test
+    void secondApprovalShouldFailAsNotWaiting() {
+        persistBookings(1);
+        bookingService.approve(bookingId, owner.getId(), true);
+
+        assertThrows(ValidationException.class, () -> bookingService.approve(bookingId, owner.getId(), false));
+        assertEquals(BookingStatus.APPROVED, em.find(Booking.class, bookingId).getStatus());
+    }
+
+    private long countStatements(Runnable action) {
+        em.flush();
+        em.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // у каждой брони своя вещь, иначе ленивая загрузка попала бы в кэш сессии и N+1 не проявился бы
+    private void persistBookings(int count) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < count; i++) {
+            Item item = em.persist(Item.builder().name("Дрель").description("Мощная дрель").available(true)
+                    .owner(owner).build());
+            bookingId = em.persist(Booking.builder()
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.WAITING)
+                    .build()).getId();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.FreeWindowDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingIntervalIndex index;
+
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private final List<Booking> approved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex(bookingRepository, 100);
+        approved.add(booking(1L, base.plusDays(1), base.plusDays(2)));
+        approved.add(booking(2L, base.plusDays(2), base.plusDays(3)));
+        approved.add(booking(3L, base.plusDays(5), base.plusDays(6)));
+        when(bookingRepository.findByItemIdAndStatusOrderByStartAsc(1L, BookingStatus.APPROVED))
+                .thenReturn(approved);
+    }
+
+    @Test
+    void freeWindowsShouldReturnGapsBetweenApprovedBookings() {
+        List<FreeWindowDto> windows = index.freeWindows(1L, base, base.plusDays(7));
+
+        assertEquals(List.of(
+                new FreeWindowDto(base, base.plusDays(1)),
+                new FreeWindowDto(base.plusDays(3), base.plusDays(5)),
+                new FreeWindowDto(base.plusDays(6), base.plusDays(7))), windows);
+    }
+
+    @Test
+    void freeWindowsShouldClipToRequestedRange() {
+        List<FreeWindowDto> windows = index.freeWindows(1L, base.plusDays(1).plusHours(12), base.plusDays(5).plusHours(1));
+
+        assertEquals(List.of(new FreeWindowDto(base.plusDays(3), base.plusDays(5))), windows);
+    }
+
+    @Test
+    void freeWindowsShouldKeepRequestedBoundsPrecisely() {
+        LocalDateTime from = base.plusDays(3).plusNanos(123_456_789);
+        LocalDateTime to = base.plusDays(4).plusNanos(987_654_321);
+
+        assertEquals(List.of(new FreeWindowDto(from, to)), index.freeWindows(1L, from, to));
+    }
+
+    @Test
+    void freeWindowsShouldLoadItemFromRepositoryOnlyOnce() {
+        index.freeWindows(1L, base, base.plusDays(7));
+        index.freeWindows(1L, base, base.plusDays(7));
+
+        verify(bookingRepository, times(1)).findByItemIdAndStatusOrderByStartAsc(1L, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void leastRecentlyQueriedItemShouldBeEvictedAndReloaded() {
+        BookingIntervalIndex small = new BookingIntervalIndex(bookingRepository, 1);
+        small.freeWindows(1L, base, base.plusDays(7));
+        small.freeWindows(2L, base, base.plusDays(7));
+        small.freeWindows(1L, base, base.plusDays(7));
+
+        verify(bookingRepository, times(2)).findByItemIdAndStatusOrderByStartAsc(1L, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void approvedEventShouldUpdateLoadedItem() {
+        index.freeWindows(1L, base, base.plusDays(7));
+
+        index.onBookingStatusChanged(event(4L, base.plusDays(3), base.plusDays(4), BookingStatus.APPROVED));
+        // повторная доставка события не должна дублировать интервал
+        index.onBookingStatusChanged(event(4L, base.plusDays(3), base.plusDays(4), BookingStatus.APPROVED));
+
+        assertEquals(List.of(new FreeWindowDto(base.plusDays(4), base.plusDays(5))),
+                index.freeWindows(1L, base.plusDays(3), base.plusDays(6)));
+    }
+
+    @Test
+    void rejectedEventShouldNotChangeIndex() {
+        index.freeWindows(1L, base, base.plusDays(7));
+
+        index.onBookingStatusChanged(event(4L, base.plusDays(3), base.plusDays(4), BookingStatus.REJECTED));
+
+        assertEquals(List.of(new FreeWindowDto(base.plusDays(3), base.plusDays(5))),
+                index.freeWindows(1L, base.plusDays(3), base.plusDays(5)));
+    }
+
+    private Booking booking(Long id, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(end)
+                .item(Item.builder().id(1L).build())
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+
+    private BookingStatusChangedEvent event(Long bookingId, LocalDateTime start, LocalDateTime end,
+                                            BookingStatus status) {
+        return BookingStatusChangedEvent.builder()
+                .bookingId(bookingId)
+                .itemId(1L)
+                .start(start)
+                .end(end)
+                .previousStatus(BookingStatus.WAITING)
+                .status(status)
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPartitionMaintenanceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private BookingPartitionMaintenance maintenance;
+
+    @BeforeEach
+    void setUp() {
+        maintenance = new BookingPartitionMaintenance(jdbcTemplate, 12, 24);
+    }
+
+    @Test
+    void createFuturePartitionsShouldStartFromCurrentMonth() {
+        maintenance.createFuturePartitions(LocalDate.of(2030, 5, 17));
+
+        verify(jdbcTemplate).queryForList(contains("create_bookings_partition"), eq(LocalDate.of(2030, 5, 1)), eq(12));
+    }
+
+    @Test
+    void archiveOldPartitionsShouldUseCutoffMonthsBack() {
+        when(jdbcTemplate.queryForObject(contains("archive_bookings_partitions"), eq(Integer.class),
+                eq(LocalDate.of(2028, 5, 1)))).thenReturn(3);
+
+        assertEquals(3, maintenance.archiveOldPartitions(LocalDate.of(2030, 5, 17)));
+    }
+
+    @Test
+    void maintainShouldNotPropagateDatabaseErrors() {
+        when(jdbcTemplate.queryForList(anyString(), any(LocalDate.class), anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        assertDoesNotThrow(() -> maintenance.maintain());
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Integer.class), any(Object[].class));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,190 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.shareit.exception.ConstraintViolations;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Выполняет schema.sql и schema-postgresql.sql на настоящем PostgreSQL: секционирование, триггер
+ * пересечения подтверждённых броней и архив проверяются там, где они работают в проде.
+ * Без Docker тест пропускается.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class BookingPostgresSchemaTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static DataSourceTransactionManager transactionManager;
+
+    private final LocalDateTime base = LocalDate.now().plusMonths(1).withDayOfMonth(10).atStartOfDay();
+    private long itemId;
+    private long bookerId;
+
+    @BeforeAll
+    static void applySchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(),
+                POSTGRES.getUsername(), POSTGRES.getPassword());
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+                new ClassPathResource("schema.sql"), new ClassPathResource("schema-postgresql.sql"));
+        // Скрипты выполняются при каждом запуске приложения, второй проход не должен ничего ломать
+        populator.execute(dataSource);
+        populator.execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("truncate users cascade");
+        long ownerId = insertUser("owner@test.com");
+        bookerId = insertUser("booker@test.com");
+        itemId = jdbcTemplate.queryForObject("insert into items (name, description, is_available, owner_id) " +
+                "values ('Дрель', 'Мощная дрель', true, ?) returning id", Long.class, ownerId);
+    }
+
+    @Test
+    void bookingsShouldBePartitionedByMonthAfterRepeatedRuns() {
+        String kind = jdbcTemplate.queryForObject("select relkind::text from pg_class where relname = 'bookings'",
+                String.class);
+        Integer partitions = jdbcTemplate.queryForObject("select count(*) from pg_inherits " +
+                "where inhparent = 'bookings'::regclass", Integer.class);
+
+        assertEquals("p", kind);
+        // Текущий месяц, двенадцать следующих и bookings_default
+        assertEquals(14, partitions);
+    }
+
+    @Test
+    void approvingOverlappingBookingShouldFailWithOverlapError() {
+        long first = insertBooking(base, base.plusHours(2));
+        long second = insertBooking(base.plusHours(1), base.plusHours(3));
+        approve(first);
+
+        DataAccessException e = assertThrows(DataAccessException.class, () -> approve(second));
+
+        assertTrue(ConstraintViolations.isApprovedBookingOverlap(e));
+    }
+
+    @Test
+    void concurrentApprovalsOfOverlappingBookingsShouldLetOnlyOneThrough() throws Exception {
+        long first = insertBooking(base, base.plusHours(2));
+        long second = insertBooking(base.plusHours(1), base.plusHours(3));
+        CountDownLatch firstApproved = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        CompletableFuture<Void> firstTx = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    approve(first);
+                    firstApproved.countDown();
+                    awaitQuietly(releaseFirst);
+                }));
+        assertTrue(firstApproved.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Void> secondTx = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> approve(second)));
+
+        // Второе подтверждение ждёт блокировку вещи, пока первое не закоммитится
+        Thread.sleep(300);
+        assertFalse(secondTx.isDone());
+        releaseFirst.countDown();
+        firstTx.get(10, TimeUnit.SECONDS);
+
+        Exception e = assertThrows(Exception.class, () -> secondTx.get(10, TimeUnit.SECONDS));
+        assertTrue(ConstraintViolations.isApprovedBookingOverlap(e));
+        assertEquals(List.of("APPROVED", "WAITING"), jdbcTemplate.queryForList(
+                "select status from bookings where id in (?, ?) order by id", String.class, first, second));
+    }
+
+    @Test
+    void approvalUnderRepeatableReadShouldBeRefused() {
+        long booking = insertBooking(base, base.plusHours(2));
+        TransactionTemplate repeatableRead = new TransactionTemplate(transactionManager);
+        repeatableRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        DataAccessException e = assertThrows(DataAccessException.class, () ->
+                repeatableRead.executeWithoutResult(status -> approve(booking)));
+
+        assertFalse(ConstraintViolations.isApprovedBookingOverlap(e));
+        assertEquals("0A000", ((SQLException) e.getMostSpecificCause()).getSQLState());
+        assertEquals("WAITING", jdbcTemplate.queryForObject("select status from bookings where id = ?",
+                String.class, booking));
+    }
+
+    @Test
+    void updateWithStartBoundsShouldTouchOnlyMatchingPartition() {
+        long booking = insertBooking(base, base.plusHours(2));
+
+        List<String> byId = explain("explain (costs off) update bookings set status = 'REJECTED' " +
+                "where id = " + booking);
+        List<String> byIdAndStart = explain("explain (costs off) update bookings set status = 'REJECTED' " +
+                "where id = " + booking + " and start_date between '" + base + "' and '" + base + "'");
+
+        assertEquals(14, byId.stream().filter(line -> line.trim().startsWith("Update on bookings_")).count());
+        assertEquals(1, byIdAndStart.stream().filter(line -> line.trim().startsWith("Update on bookings_")).count());
+    }
+
+    @Test
+    void finishedPartitionShouldBeMovedToArchive() {
+        LocalDateTime old = LocalDate.now().minusYears(3).withDayOfMonth(1).atStartOfDay();
+        jdbcTemplate.queryForList("select create_bookings_partition(?)", old.toLocalDate());
+        insertBooking(old, old.plusDays(1));
+
+        Integer archived = jdbcTemplate.queryForObject("select archive_bookings_partitions(?)", Integer.class,
+                LocalDate.now().minusYears(2));
+
+        assertEquals(1, archived);
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from bookings where start_date = ?",
+                Integer.class, old));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from bookings_archive.bookings_" +
+                old.getYear() + "_" + String.format("%02d", old.getMonthValue()), Integer.class));
+    }
+
+    private long insertUser(String email) {
+        return jdbcTemplate.queryForObject("insert into users (name, email) values ('User', ?) returning id",
+                Long.class, email);
+    }
+
+    private long insertBooking(LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.queryForObject("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                "values (?, ?, ?, ?, 'WAITING') returning id", Long.class, start, end, itemId, bookerId);
+    }
+
+    private void approve(long bookingId) {
+        jdbcTemplate.update("update bookings set status = 'APPROVED' where id = ?", bookingId);
+    }
+
+    private List<String> explain(String sql) {
+        return jdbcTemplate.queryForList(sql, String.class);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
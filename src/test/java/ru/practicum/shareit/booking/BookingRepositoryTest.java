@@ -0,0 +1,190 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.exception.ConstraintViolations;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.reminder.BookingTimes;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class BookingRepositoryTest {
+
+    private static final Sort SORT_BY_START_DESC = Sort.by(Sort.Direction.DESC, "start", "id");
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        owner = em.persist(User.builder().name("Owner").email("owner@test.com").build());
+        booker = em.persist(User.builder().name("Booker").email("booker@test.com").build());
+        item = em.persist(Item.builder().name("Дрель").description("Мощная дрель").available(true)
+                .owner(owner).build());
+        // две брони с одинаковым start, чтобы проверить разрешение равенства по id
+        for (int i = 0; i < 5; i++) {
+            persistBooking(base.plusDays(i), BookingStatus.WAITING);
+        }
+        persistBooking(base.plusDays(4), BookingStatus.WAITING);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void findByItemOwnerIdShouldPageThroughAllBookingsWithoutDuplicates() {
+        List<Long> seen = new ArrayList<>();
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<Booking> window;
+        do {
+            window = bookingRepository.findByItemOwnerId(owner.getId(), position, SORT_BY_START_DESC, Limit.of(2));
+            window.forEach(booking -> seen.add(booking.getId()));
+            if (!window.isEmpty()) {
+                position = window.positionAt(window.size() - 1);
+            }
+        } while (window.hasNext());
+
+        assertEquals(6, seen.size());
+        assertEquals(6, seen.stream().distinct().count());
+    }
+
+    @Test
+    void findByBookerIdShouldResumeFromEncodedCursor() {
+        Window<Booking> first = bookingRepository.findByBookerId(booker.getId(), ScrollPosition.keyset(),
+                SORT_BY_START_DESC, Limit.of(3));
+        String cursor = BookingCursor.encode(first.positionAt(first.size() - 1));
+
+        Window<Booking> second = bookingRepository.findByBookerId(booker.getId(), BookingCursor.decode(cursor),
+                SORT_BY_START_DESC, Limit.of(3));
+
+        assertTrue(first.hasNext());
+        assertEquals(3, second.size());
+        assertFalse(second.hasNext());
+        assertTrue(second.getContent().stream().noneMatch(first.getContent()::contains));
+    }
+
+    @Test
+    void saveShouldRejectOverlappingApprovedBookingsOfSameItem() {
+        Booking first = persistBooking(base.plusDays(10), BookingStatus.WAITING);
+        Booking second = persistBooking(base.plusDays(10).plusMinutes(30), BookingStatus.WAITING);
+        first.setStatus(BookingStatus.APPROVED);
+        bookingRepository.saveAndFlush(first);
+
+        second.setStatus(BookingStatus.APPROVED);
+
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> bookingRepository.saveAndFlush(second));
+        assertTrue(ConstraintViolations.isApprovedBookingOverlap(exception));
+    }
+
+    @Test
+    void saveShouldAllowAdjacentApprovedBookingsOfSameItem() {
+        Booking first = persistBooking(base.plusDays(10), BookingStatus.APPROVED);
+        Booking second = persistBooking(base.plusDays(10).plusHours(1), BookingStatus.WAITING);
+        em.flush();
+
+        second.setStatus(BookingStatus.APPROVED);
+
+        assertDoesNotThrow(() -> bookingRepository.saveAndFlush(second));
+        assertEquals(BookingStatus.APPROVED, first.getStatus());
+    }
+
+    @Test
+    void updateStatusShouldChangeOnlyWaitingBookingsOfOwnersItems() {
+        User stranger = em.persist(User.builder().name("Stranger").email("stranger@test.com").build());
+        Item foreignItem = em.persist(Item.builder().name("Пила").description("Ручная пила").available(true)
+                .owner(stranger).build());
+        Booking waiting = persistBooking(base.plusDays(20), BookingStatus.WAITING);
+        Booking rejected = persistBooking(base.plusDays(21), BookingStatus.REJECTED);
+        Booking foreign = em.persist(Booking.builder().start(base.plusDays(22)).end(base.plusDays(23))
+                .item(foreignItem).booker(booker).status(BookingStatus.WAITING).build());
+
+        int updated = bookingRepository.updateStatus(List.of(waiting.getId(), rejected.getId(), foreign.getId()),
+                owner.getId(), BookingStatus.WAITING, BookingStatus.APPROVED);
+
+        assertEquals(1, updated);
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(waiting.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(rejected.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(foreign.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void updateStatusStartingBetweenShouldSkipBookingsOutsideStartBounds() {
+        Booking inside = persistBooking(base.plusDays(20), BookingStatus.WAITING);
+        Booking outside = persistBooking(base.plusDays(25), BookingStatus.WAITING);
+
+        int updated = bookingRepository.updateStatusStartingBetween(List.of(inside.getId(), outside.getId()),
+                base.plusDays(19), base.plusDays(21), owner.getId(), BookingStatus.WAITING, BookingStatus.REJECTED);
+
+        assertEquals(1, updated);
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(inside.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(outside.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void summariesShouldCountBookingsPerStateInSingleQuery() {
+        LocalDateTime now = base.plusDays(2).plusMinutes(30);
+        em.persist(Booking.builder().start(base.minusDays(3)).end(base.minusDays(2))
+                .item(item).booker(booker).status(BookingStatus.REJECTED).build());
+
+        BookingSummaryDto expected = new BookingSummaryDto(7L, 1L, 3L, 3L, 6L, 1L);
+
+        assertEquals(expected, bookingRepository.summarizeByBookerId(booker.getId(), now));
+        assertEquals(expected, bookingRepository.summarizeByItemOwnerId(owner.getId(), now));
+        assertEquals(new BookingSummaryDto(0L, 0L, 0L, 0L, 0L, 0L),
+                bookingRepository.summarizeByItemOwnerId(booker.getId(), now));
+    }
+
+    @Test
+    void streamTimesShouldReturnApprovedBookingsStartingOrEndingInRange() {
+        Booking startsInside = persistBooking(base.plusDays(30).plusHours(5), BookingStatus.APPROVED);
+        Booking endsInside = em.persist(Booking.builder().start(base.plusDays(29)).end(base.plusDays(30).plusHours(1))
+                .item(item).booker(booker).status(BookingStatus.APPROVED).build());
+        persistBooking(base.plusDays(30).plusHours(3), BookingStatus.WAITING);
+        persistBooking(base.plusDays(40), BookingStatus.APPROVED);
+        em.flush();
+
+        List<BookingTimes> times;
+        try (var stream = bookingRepository.streamTimesByStatusBetween(BookingStatus.APPROVED,
+                base.plusDays(30), base.plusDays(31))) {
+            times = stream.toList();
+        }
+
+        assertEquals(List.of(startsInside.getId(), endsInside.getId()),
+                times.stream().map(BookingTimes::getBookingId).sorted().toList());
+        assertTrue(times.stream().allMatch(t -> t.getOwnerId().equals(owner.getId())
+                && t.getBookerId().equals(booker.getId())));
+    }
+
+    private Booking persistBooking(LocalDateTime start, BookingStatus status) {
+        return em.persist(Booking.builder()
+                .start(start)
+                .end(start.plusHours(1))
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build());
+    }
+}
\ No newline at end of file
@@ -6,10 +6,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.booking.dto.BookingBatchRequestDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingRecurrenceDto;
+import ru.practicum.shareit.booking.dto.BookingRecurringRequestDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.dto.RecurrenceFrequency;
+import ru.practicum.shareit.bulk.dto.BulkOutcome;
+import ru.practicum.shareit.bulk.dto.BulkResultDto;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemRepository;
@@ -17,9 +31,12 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -36,6 +53,10 @@ class BookingServiceTest {
     private ItemRepository itemRepository;
     @Mock
     private BookingMapper bookingMapper;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private BookingJdbcWriter bookingJdbcWriter;
 
     @InjectMocks
     private BookingServiceImpl bookingService;
@@ -92,6 +113,117 @@ class BookingServiceTest {
         assertEquals(1L, result.getId());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void createBatchShouldLockItemsOnceAndSaveAllBookings() {
+        Item tent = Item.builder().id(2L).name("Tent").description("Desc").available(true).owner(owner).build();
+        BookingBatchRequestDto batch = new BookingBatchRequestDto(List.of(2L, 1L, 2L),
+                requestDto.getStart(), requestDto.getEnd());
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findForUpdateByIdInOrderByIdAsc(Set.of(1L, 2L))).thenReturn(List.of(item, tent));
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bookingMapper.toBookingDto(any(Booking.class))).thenReturn(bookingDto);
+
+        List<BookingDto> result = bookingService.createBatch(batch, 2L);
+
+        assertEquals(2, result.size());
+        verify(itemRepository, never()).findById(anyLong());
+        verify(bookingRepository).saveAll(argThat(bookings -> {
+            List<Booking> saved = (List<Booking>) bookings;
+            return saved.size() == 2 && saved.get(0).getItem() == item && saved.get(1).getItem() == tent
+                    && saved.stream().allMatch(b -> b.getStatus() == BookingStatus.WAITING);
+        }));
+        verify(eventPublisher, times(2)).publishEvent(any(BookingStatusChangedEvent.class));
+    }
+
+    @Test
+    void createBatchShouldFailWholeBatchWhenItemMissing() {
+        BookingBatchRequestDto batch = new BookingBatchRequestDto(List.of(1L, 3L),
+                requestDto.getStart(), requestDto.getEnd());
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findForUpdateByIdInOrderByIdAsc(Set.of(1L, 3L))).thenReturn(List.of(item));
+
+        NotFoundException e = assertThrows(NotFoundException.class, () -> bookingService.createBatch(batch, 2L));
+
+        assertTrue(e.getMessage().contains("[3]"));
+        verify(bookingRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void createBatchShouldFailWholeBatchWhenItemUnavailable() {
+        item.setAvailable(false);
+        BookingBatchRequestDto batch = new BookingBatchRequestDto(List.of(1L),
+                requestDto.getStart(), requestDto.getEnd());
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findForUpdateByIdInOrderByIdAsc(Set.of(1L))).thenReturn(List.of(item));
+
+        assertThrows(ValidationException.class, () -> bookingService.createBatch(batch, 2L));
+        verify(bookingRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createRecurringShouldExpandRuleAndInsertInOneBatch() {
+        BookingRecurringRequestDto recurring = recurring(new BookingRecurrenceDto(RecurrenceFrequency.WEEKLY, 3, null));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(bookingRepository.findByItemIdAndStatusAndStartBeforeAndEndAfter(eq(1L), eq(BookingStatus.APPROVED),
+                any(), any())).thenReturn(List.of());
+        when(bookingMapper.toBookingDto(any(Booking.class))).thenReturn(bookingDto);
+
+        List<BookingDto> result = bookingService.createRecurring(recurring, 2L);
+
+        assertEquals(3, result.size());
+        verify(bookingRepository).findByItemIdAndStatusAndStartBeforeAndEndAfter(1L, BookingStatus.APPROVED,
+                recurring.getEnd().plusWeeks(2), recurring.getStart());
+        verify(bookingJdbcWriter).insertAll(argThat(bookings -> {
+            List<Booking> saved = (List<Booking>) bookings;
+            return saved.size() == 3 && saved.get(2).getStart().equals(recurring.getStart().plusWeeks(2))
+                    && saved.get(2).getEnd().equals(recurring.getEnd().plusWeeks(2));
+        }));
+        verify(eventPublisher, times(3)).publishEvent(any(BookingStatusChangedEvent.class));
+    }
+
+    @Test
+    void createRecurringShouldRejectWholeSeriesWhenOccurrenceOverlapsApprovedBooking() {
+        BookingRecurringRequestDto recurring = recurring(new BookingRecurrenceDto(RecurrenceFrequency.DAILY, null,
+                requestDto.getStart().plusDays(4)));
+        Booking approved = Booking.builder().id(9L).item(item).booker(booker).status(BookingStatus.APPROVED)
+                .start(recurring.getStart().plusDays(3).plusMinutes(30))
+                .end(recurring.getStart().plusDays(3).plusHours(5))
+                .build();
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(bookingRepository.findByItemIdAndStatusAndStartBeforeAndEndAfter(eq(1L), eq(BookingStatus.APPROVED),
+                any(), any())).thenReturn(List.of(approved));
+
+        ConflictException e = assertThrows(ConflictException.class, () -> bookingService.createRecurring(recurring, 2L));
+
+        assertTrue(e.getMessage().contains(recurring.getStart().plusDays(3).toString()));
+        verifyNoInteractions(bookingJdbcWriter);
+    }
+
+    @Test
+    void createRecurringShouldRequireExactlyOneOfCountAndUntil() {
+        BookingRecurringRequestDto recurring = recurring(new BookingRecurrenceDto(RecurrenceFrequency.DAILY, 2,
+                requestDto.getStart().plusDays(4)));
+
+        assertThrows(ValidationException.class, () -> bookingService.createRecurring(recurring, 2L));
+        verifyNoInteractions(bookingRepository, bookingJdbcWriter);
+    }
+
+    @Test
+    void createRecurringShouldRejectOccurrencesLongerThanPeriod() {
+        BookingRecurringRequestDto recurring = BookingRecurringRequestDto.builder()
+                .itemId(1L)
+                .start(requestDto.getStart())
+                .end(requestDto.getStart().plusDays(2))
+                .recurrence(new BookingRecurrenceDto(RecurrenceFrequency.DAILY, 3, null))
+                .build();
+
+        assertThrows(ValidationException.class, () -> bookingService.createRecurring(recurring, 2L));
+    }
+
     @Test
     void createBookingShouldThrowValidationExceptionWhenDatesInvalid() {
         requestDto.setStart(LocalDateTime.now().plusDays(2));
@@ -135,40 +267,148 @@ class BookingServiceTest {
 
     @Test
     void approveBookingShouldReturnApprovedBookingWhenValid() {
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatus(List.of(1L), 1L, BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(1);
         when(bookingMapper.toBookingDto(booking)).thenReturn(bookingDto);
 
         BookingDto result = bookingService.approve(1L, 1L, true);
 
-        assertEquals(BookingStatus.APPROVED, booking.getStatus());
         assertNotNull(result);
+        assertEquals(BookingStatus.APPROVED, booking.getStatus());
+        verify(eventPublisher).publishEvent(argThat((BookingStatusChangedEvent event) ->
+                event.getStatus() == BookingStatus.APPROVED
+                        && event.getPreviousStatus() == BookingStatus.WAITING
+                        && event.getOwnerId().equals(1L)));
+    }
+
+    @Test
+    void approveBookingShouldThrowConflictExceptionWhenApprovedBookingsOverlap() {
+        when(bookingRepository.findDetailedById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatus(anyCollection(), anyLong(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("constraint violated",
+                        new SQLException("Approved bookings of item 1 overlap", "23P01")));
+
+        assertThrows(ConflictException.class, () -> bookingService.approve(1L, 1L, true));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void approveBookingShouldNotHideOtherIntegrityViolations() {
+        when(bookingRepository.findDetailedById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatus(anyCollection(), anyLong(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("not-null violated"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> bookingService.approve(1L, 1L, true));
     }
 
     @Test
     void approveBookingShouldThrowNotFoundExceptionWhenBookingNotFound() {
-        when(bookingRepository.findById(99L)).thenReturn(Optional.empty());
+        when(bookingRepository.findDetailedById(99L)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> bookingService.approve(99L, 1L, true));
     }
 
     @Test
     void approveBookingShouldThrowValidationExceptionWhenUserNotOwner() {
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(1L)).thenReturn(Optional.of(booking));
 
         assertThrows(ValidationException.class, () -> bookingService.approve(1L, 2L, true));
+        verify(bookingRepository, never()).updateStatus(anyCollection(), anyLong(), any(), any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void approveBookingShouldThrowValidationExceptionWhenNotWaiting() {
         booking.setStatus(BookingStatus.APPROVED);
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(1L)).thenReturn(Optional.of(booking));
+
+        assertThrows(ValidationException.class, () -> bookingService.approve(1L, 1L, false));
+        verify(bookingRepository, never()).updateStatus(anyCollection(), anyLong(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void approveBookingShouldThrowConflictExceptionWhenStatusChangedConcurrently() {
+        // При чтении бронь ждала решения, но условный UPDATE уже не нашёл её в WAITING
+        when(bookingRepository.findDetailedById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatus(List.of(1L), 1L, BookingStatus.WAITING, BookingStatus.REJECTED))
+                .thenReturn(0);
+
+        assertThrows(ConflictException.class, () -> bookingService.approve(1L, 1L, false));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void approveAllShouldReportOutcomeForEachRequestedId() {
+        Item otherItem = Item.builder().id(2L).name("Other").description("Desc").available(true)
+                .owner(booker).build();
+        Booking foreign = Booking.builder().id(2L).start(booking.getStart()).end(booking.getEnd())
+                .item(otherItem).booker(owner).status(BookingStatus.WAITING).build();
+        Booking rejected = Booking.builder().id(3L).start(booking.getStart()).end(booking.getEnd())
+                .item(item).booker(booker).status(BookingStatus.REJECTED).build();
+        Booking overlapping = Booking.builder().id(4L).start(booking.getStart().plusHours(1))
+                .end(booking.getEnd().plusHours(1)).item(item).booker(booker).status(BookingStatus.WAITING).build();
+        when(bookingRepository.findByIdIn(anyCollection())).thenReturn(List.of(booking, foreign, rejected, overlapping));
+        when(bookingRepository.findByItemIdInAndStatusAndStartBeforeAndEndAfter(
+                anyCollection(), eq(BookingStatus.APPROVED), any(), any())).thenReturn(List.of());
+        when(bookingRepository.updateStatusStartingBetween(List.of(1L), booking.getStart(), booking.getStart(), 1L,
+                BookingStatus.WAITING, BookingStatus.APPROVED)).thenReturn(1);
+
+        List<BulkResultDto> result = bookingService.approveAll(1L, List.of(1L, 2L, 3L, 4L, 5L, 1L), true);
+
+        assertEquals(List.of(
+                new BulkResultDto(1L, BulkOutcome.UPDATED),
+                new BulkResultDto(2L, BulkOutcome.FORBIDDEN),
+                new BulkResultDto(3L, BulkOutcome.INVALID_STATE),
+                new BulkResultDto(4L, BulkOutcome.CONFLICT),
+                new BulkResultDto(5L, BulkOutcome.NOT_FOUND)), result);
+        verify(itemRepository).findForUpdateByIdInOrderByIdAsc(Set.of(1L));
+        verify(eventPublisher).publishEvent(argThat((BookingStatusChangedEvent event) ->
+                event.getBookingId().equals(1L) && event.getStatus() == BookingStatus.APPROVED));
+        verify(eventPublisher, times(1)).publishEvent(any(BookingStatusChangedEvent.class));
+    }
+
+    @Test
+    void approveAllShouldMarkBookingsOverlappingApprovedOnesAsConflicts() {
+        Booking approved = Booking.builder().id(9L).start(booking.getStart().minusHours(1))
+                .end(booking.getStart().plusMinutes(1)).item(item).booker(booker).status(BookingStatus.APPROVED).build();
+        when(bookingRepository.findByIdIn(anyCollection())).thenReturn(List.of(booking));
+        when(bookingRepository.findByItemIdInAndStatusAndStartBeforeAndEndAfter(
+                anyCollection(), eq(BookingStatus.APPROVED), any(), any())).thenReturn(List.of(approved));
+
+        List<BulkResultDto> result = bookingService.approveAll(1L, List.of(1L), true);
+
+        assertEquals(List.of(new BulkResultDto(1L, BulkOutcome.CONFLICT)), result);
+        verify(bookingRepository, never()).updateStatusStartingBetween(any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void approveAllShouldRejectWithoutOverlapCheck() {
+        when(bookingRepository.findByIdIn(anyCollection())).thenReturn(List.of(booking));
+        when(bookingRepository.updateStatusStartingBetween(List.of(1L), booking.getStart(), booking.getStart(), 1L,
+                BookingStatus.WAITING, BookingStatus.REJECTED)).thenReturn(1);
+
+        List<BulkResultDto> result = bookingService.approveAll(1L, List.of(1L), false);
+
+        assertEquals(List.of(new BulkResultDto(1L, BulkOutcome.UPDATED)), result);
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void approveAllShouldThrowConflictExceptionWhenBookingChangedConcurrently() {
+        when(bookingRepository.findByIdIn(anyCollection())).thenReturn(List.of(booking));
+        when(bookingRepository.updateStatusStartingBetween(anyCollection(), any(), any(), anyLong(), any(), any()))
+                .thenReturn(0);
 
-        assertThrows(ValidationException.class, () -> bookingService.approve(1L, 1L, true));
+        assertThrows(ConflictException.class, () -> bookingService.approveAll(1L, List.of(1L), false));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void getBookingByIdShouldReturnBookingDtoWhenUserIsBooker() {
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(1L)).thenReturn(Optional.of(booking));
         when(bookingMapper.toBookingDto(booking)).thenReturn(bookingDto);
 
         BookingDto result = bookingService.getById(1L, 2L);
@@ -178,7 +418,7 @@ class BookingServiceTest {
 
     @Test
     void getBookingByIdShouldReturnBookingDtoWhenUserIsOwner() {
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(1L)).thenReturn(Optional.of(booking));
         when(bookingMapper.toBookingDto(booking)).thenReturn(bookingDto);
 
         BookingDto result = bookingService.getById(1L, 1L);
@@ -188,7 +428,7 @@ class BookingServiceTest {
 
     @Test
     void getBookingByIdShouldThrowNotFoundExceptionWhenUserNotRelated() {
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(1L)).thenReturn(Optional.of(booking));
 
         assertThrows(NotFoundException.class, () -> bookingService.getById(1L, 3L));
     }
@@ -196,13 +436,145 @@ class BookingServiceTest {
     @Test
     void getUserBookingsShouldReturnListForAllState() {
         when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBookerId(eq(2L), any(Sort.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findByBookerId(eq(2L), any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(Window.from(List.of(booking), index -> ScrollPosition.keyset()));
+        when(bookingMapper.toBookingDto(booking)).thenReturn(bookingDto);
+
+        BookingPageDto result = bookingService.getUserBookings(2L, BookingState.ALL, null, 10);
+
+        assertEquals(1, result.getBookings().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getUserBookingsShouldReadWholeListWithoutLimitAndCursor() {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(bookingRepository.findByBookerId(eq(2L), any(ScrollPosition.class), any(Sort.class),
+                eq(Limit.unlimited()))).thenReturn(Window.from(List.of(booking), index -> ScrollPosition.keyset()));
+        when(bookingMapper.toBookingDto(booking)).thenReturn(bookingDto);
+
+        BookingPageDto result = bookingService.getUserBookings(2L, BookingState.ALL, null, null);
+
+        assertEquals(List.of(bookingDto), result.getBookings());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getOwnerBookingsShouldUseDefaultLimitWithCursorOnly() {
+        String cursor = BookingCursor.encode(
+                ScrollPosition.forward(Map.of("start", booking.getStart(), "id", booking.getId())));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(bookingRepository.findByItemOwnerId(eq(1L), any(ScrollPosition.class), any(Sort.class),
+                eq(Limit.of(100)))).thenReturn(Window.from(List.of(), index -> ScrollPosition.keyset()));
+
+        assertTrue(bookingService.getOwnerBookings(1L, BookingState.ALL, cursor, null).getBookings().isEmpty());
+    }
+
+    @Test
+    void getOwnerBookingsShouldReturnNextCursorWhenMorePagesAvailable() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(bookingRepository.findByItemOwnerIdAndStatus(eq(1L), eq(BookingStatus.WAITING),
+                any(ScrollPosition.class), any(Sort.class), eq(Limit.of(1))))
+                .thenReturn(Window.from(List.of(booking),
+                        index -> ScrollPosition.forward(Map.of("start", booking.getStart(), "id", booking.getId())),
+                        true));
         when(bookingMapper.toBookingDto(booking)).thenReturn(bookingDto);
 
-        List<BookingDto> result = bookingService.getUserBookings(2L, BookingState.ALL);
+        BookingPageDto result = bookingService.getOwnerBookings(1L, BookingState.WAITING, null, 1);
+
+        assertEquals(1, result.getBookings().size());
+        assertNotNull(result.getNextCursor());
+    }
+
+    @Test
+    void getOwnerBookingsShouldContinueFromCursor() {
+        String cursor = BookingCursor.encode(
+                ScrollPosition.forward(Map.of("start", booking.getStart(), "id", booking.getId())));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(bookingRepository.findByItemOwnerId(eq(1L), any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(Window.from(List.of(), index -> ScrollPosition.keyset()));
+
+        BookingPageDto result = bookingService.getOwnerBookings(1L, BookingState.ALL, cursor, 10);
+
+        assertTrue(result.getBookings().isEmpty());
+        verify(bookingRepository).findByItemOwnerId(eq(1L),
+                eq(ScrollPosition.forward(Map.of("start", booking.getStart(), "id", booking.getId()))),
+                any(Sort.class), any(Limit.class));
+    }
+
+    @Test
+    void getItemBookingsShouldQueryByItemAndState() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(bookingRepository.findByItemIdAndStatus(eq(1L), eq(BookingStatus.WAITING),
+                any(ScrollPosition.class), any(Sort.class), eq(Limit.of(10))))
+                .thenReturn(Window.from(List.of(booking), index -> ScrollPosition.keyset()));
+        when(bookingMapper.toBookingDto(booking)).thenReturn(bookingDto);
+
+        BookingPageDto result = bookingService.getItemBookings(1L, 1L, BookingState.WAITING, null, 10);
+
+        assertEquals(List.of(bookingDto), result.getBookings());
+        assertNull(result.getNextCursor());
+        verify(bookingRepository, never()).findByItemOwnerIdAndStatus(anyLong(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getItemBookingsShouldThrowNotFoundExceptionWhenUserIsNotOwner() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+
+        assertThrows(NotFoundException.class,
+                () -> bookingService.getItemBookings(2L, 1L, BookingState.ALL, null, 10));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getItemBookingsShouldThrowNotFoundExceptionWhenItemMissing() {
+        when(itemRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class,
+                () -> bookingService.getItemBookings(1L, 99L, BookingState.ALL, null, 10));
+    }
+
+    @Test
+    void getUserBookingsShouldThrowValidationExceptionWhenCursorInvalid() {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.getUserBookings(2L, BookingState.ALL, "not-a-cursor", 10));
+    }
+
+    @Test
+    void getUserBookingsShouldThrowValidationExceptionWhenLimitOutOfRange() {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
 
-        assertEquals(1, result.size());
+        assertThrows(ValidationException.class,
+                () -> bookingService.getUserBookings(2L, BookingState.ALL, null, 0));
     }
 
     // Аналогичные тесты для других состояний (CURRENT, PAST, FUTURE, WAITING, REJECTED) можно добавить по желанию.
+
+    @Test
+    void getOwnerSummaryShouldReturnAggregatedCounts() {
+        BookingSummaryDto summary = new BookingSummaryDto(3L, 1L, 1L, 1L, 2L, 0L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(bookingRepository.summarizeByItemOwnerId(eq(1L), any(LocalDateTime.class))).thenReturn(summary);
+
+        assertEquals(summary, bookingService.getOwnerSummary(1L));
+    }
+
+    @Test
+    void getUserSummaryShouldThrowNotFoundExceptionWhenUserNotFound() {
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingService.getUserSummary(99L));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    private BookingRecurringRequestDto recurring(BookingRecurrenceDto recurrence) {
+        return BookingRecurringRequestDto.builder()
+                .itemId(1L)
+                .start(requestDto.getStart())
+                .end(requestDto.getStart().plusHours(2))
+                .recurrence(recurrence)
+                .build();
+    }
 }
\ No newline at end of file
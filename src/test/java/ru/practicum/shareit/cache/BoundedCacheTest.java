@@ -0,0 +1,66 @@
+package ru.practicum.shareit.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    void leastRecentlyReadEntryShouldBeEvictedWhenFull() {
+        List<String> evicted = new ArrayList<>();
+        // одна запись на сегмент: вытеснение проверяется на ключах одного сегмента
+        BoundedCache<Integer, String> cache = new BoundedCache<>(1, (key, value) -> evicted.add(value));
+        cache.put(1, "a");
+        cache.put(2, "b");
+
+        assertNull(cache.get(1));
+        assertEquals("b", cache.get(2));
+        assertEquals(List.of("a"), evicted);
+    }
+
+    @Test
+    void readShouldProtectEntryFromEviction() {
+        // 16 сегментов по две записи; ключи 0, 16 и 32 попадают в один сегмент
+        BoundedCache<Integer, String> cache = new BoundedCache<>(32);
+        cache.put(0, "a");
+        cache.put(16, "b");
+        cache.get(0);
+        cache.put(32, "c");
+
+        assertEquals("a", cache.get(0));
+        assertNull(cache.get(16));
+        assertEquals("c", cache.get(32));
+    }
+
+    @Test
+    void sizeShouldNeverExceedLimit() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        for (int i = 0; i < 10_000; i++) {
+            cache.computeIfAbsent(i, key -> key * 2);
+        }
+
+        assertTrue(cache.size() <= 100);
+        assertEquals(19_998, cache.get(9_999));
+    }
+
+    @Test
+    void computeIfAbsentShouldLoadOnlyMissingKeys() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10);
+        List<Integer> loaded = new ArrayList<>();
+        cache.computeIfAbsent(1, key -> {
+            loaded.add(key);
+            return "a";
+        });
+        cache.computeIfAbsent(1, key -> {
+            loaded.add(key);
+            return "b";
+        });
+
+        assertEquals(List.of(1), loaded);
+        assertEquals("a", cache.get(1));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.change;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.change.dto.ChangeFeedDto;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ChangeService changeService;
+
+    @Test
+    void shouldReturnChangesSinceToken() throws Exception {
+        when(changeService.getChanges(1L, 42L, 10)).thenReturn(ChangeFeedDto.builder()
+                .items(List.of(ItemDto.builder().id(5L).name("Дрель").build()))
+                .bookings(List.of())
+                .comments(List.of())
+                .token(57L)
+                .hasMore(false)
+                .build());
+
+        mockMvc.perform(get("/changes")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("since", "42")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(5))
+                .andExpect(jsonPath("$.token").value(57))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenLimitInvalid() throws Exception {
+        when(changeService.getChanges(1L, null, 0)).thenThrow(new ValidationException("Limit must be between 1 and 1000"));
+
+        mockMvc.perform(get("/changes")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
\ No newline at end of file
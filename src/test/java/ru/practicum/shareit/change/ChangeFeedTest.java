@@ -0,0 +1,244 @@
+package ru.practicum.shareit.change;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.change.dto.ChangeFeedDto;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Номера изменений проставляются при коммите, поэтому тест работает через транзакции сервисов без отката
+@SpringBootTest
+class ChangeFeedTest {
+
+    @Autowired
+    private ChangeService changeService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("Owner").email("owner@changes.test").build());
+        booker = userRepository.save(User.builder().name("Booker").email("booker@changes.test").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("outbox_events", "comments", "item_occupancy", "bookings", "items", "users")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    void feedShouldReturnRowsChangedAfterTokenForOwnerAndBooker() {
+        long ownerToken = changeService.getChanges(owner.getId(), null, 100).getToken();
+        long bookerToken = changeService.getChanges(booker.getId(), null, 100).getToken();
+
+        ItemDto item = createItem();
+        BookingDto booking = createBooking(item);
+
+        ChangeFeedDto ownerFeed = changeService.getChanges(owner.getId(), ownerToken, 100);
+        ChangeFeedDto bookerFeed = changeService.getChanges(booker.getId(), bookerToken, 100);
+
+        assertEquals(List.of(item.getId()), ownerFeed.getItems().stream().map(ItemDto::getId).toList());
+        assertEquals(List.of(booking.getId()), ownerFeed.getBookings().stream().map(BookingDto::getId).toList());
+        assertFalse(ownerFeed.getHasMore());
+        assertTrue(bookerFeed.getItems().isEmpty());
+        assertEquals(1, bookerFeed.getBookings().size());
+        assertTrue(changeService.getChanges(owner.getId(), ownerFeed.getToken(), 100).getBookings().isEmpty());
+    }
+
+    @Test
+    void feedShouldPageInCommitOrderAndReturnUpdatedRowsAgain() {
+        long token = changeService.getChanges(owner.getId(), null, 100).getToken();
+        ItemDto item = createItem();
+        BookingDto booking = createBooking(item);
+
+        ChangeFeedDto first = changeService.getChanges(owner.getId(), token, 1);
+        ChangeFeedDto second = changeService.getChanges(owner.getId(), first.getToken(), 1);
+
+        assertEquals(1, first.getItems().size());
+        assertTrue(first.getBookings().isEmpty());
+        assertTrue(first.getHasMore());
+        assertEquals(booking.getId(), second.getBookings().get(0).getId());
+        assertFalse(second.getHasMore());
+
+        bookingService.approve(booking.getId(), owner.getId(), true);
+        ChangeFeedDto afterApproval = changeService.getChanges(owner.getId(), second.getToken(), 100);
+
+        assertTrue(afterApproval.getItems().isEmpty());
+        assertEquals(BookingStatus.APPROVED, afterApproval.getBookings().get(0).getStatus());
+    }
+
+    @Test
+    void feedShouldNotSkipNumberOfTransactionCommittingLater() throws Exception {
+        ItemDto first = createItem();
+        ItemDto second = createItem();
+        long token = changeService.getChanges(owner.getId(), null, 100).getToken();
+        CountDownLatch numbered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Первая транзакция получает номер и задерживается перед коммитом
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    itemService.update(first.getId(), ItemDto.builder().name("Дрель 1").build(), owner.getId());
+                    holdBeforeCommit(numbered, release);
+                }));
+        assertTrue(numbered.await(5, TimeUnit.SECONDS));
+        // Вторая получает номер больше и коммитится раньше первой
+        itemService.update(second.getId(), ItemDto.builder().name("Дрель 2").build(), owner.getId());
+
+        // Лента не ждёт первую транзакцию, но и не отдаёт номера после её квитанции
+        ChangeFeedDto before = CompletableFuture.supplyAsync(() -> changeService.getChanges(owner.getId(), token, 100))
+                .get(5, TimeUnit.SECONDS);
+        assertTrue(before.getItems().isEmpty());
+        release.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+        ChangeFeedDto after = changeService.getChanges(owner.getId(), before.getToken(), 100);
+
+        assertEquals(Set.of(first.getId(), second.getId()),
+                after.getItems().stream().map(ItemDto::getId).collect(Collectors.toSet()));
+        assertTrue(changeService.getChanges(owner.getId(), after.getToken(), 100).getItems().isEmpty());
+    }
+
+    @Test
+    void writerShouldCommitWhilePollIsOpen() throws Exception {
+        ItemDto item = createItem();
+        long token = changeService.getChanges(owner.getId(), null, 100).getToken();
+        CountDownLatch polled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Запрос ленты держит свою транзакцию открытой после выборок
+        CompletableFuture<ChangeFeedDto> poll = CompletableFuture.supplyAsync(() ->
+                new TransactionTemplate(transactionManager).execute(status -> {
+                    ChangeFeedDto page = changeService.getChanges(owner.getId(), token, 100);
+                    polled.countDown();
+                    awaitQuietly(release);
+                    return page;
+                }));
+        assertTrue(polled.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<ItemDto> writer = CompletableFuture.supplyAsync(() ->
+                itemService.update(item.getId(), ItemDto.builder().name("Дрель 2").build(), owner.getId()));
+        ItemDto updated = writer.get(5, TimeUnit.SECONDS);
+        release.countDown();
+        ChangeFeedDto page = poll.get(5, TimeUnit.SECONDS);
+
+        assertEquals("Дрель 2", updated.getName());
+        assertTrue(page.getItems().isEmpty());
+        assertEquals(List.of(item.getId()), changeService.getChanges(owner.getId(), page.getToken(), 100)
+                .getItems().stream().map(ItemDto::getId).toList());
+    }
+
+    @Test
+    void rolledBackWriterShouldNotHoldFeedBack() {
+        ItemDto item = createItem();
+        long token = changeService.getChanges(owner.getId(), null, 100).getToken();
+
+        // Откат после выдачи номеров: квитанция закрывается и отметка ленты идёт дальше
+        assertThrows(IllegalStateException.class, () ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    itemService.update(item.getId(), ItemDto.builder().name("Дрель 1").build(), owner.getId());
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public int getOrder() {
+                            return Ordered.LOWEST_PRECEDENCE;
+                        }
+
+                        @Override
+                        public void beforeCommit(boolean readOnly) {
+                            throw new IllegalStateException("rollback after numbering");
+                        }
+                    });
+                }));
+        itemService.update(item.getId(), ItemDto.builder().name("Дрель 2").build(), owner.getId());
+
+        ChangeFeedDto page = changeService.getChanges(owner.getId(), token, 100);
+
+        assertEquals(List.of("Дрель 2"), page.getItems().stream().map(ItemDto::getName).toList());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM change_tickets", Integer.class));
+    }
+
+    @Test
+    void feedShouldRejectNegativeToken() {
+        assertThrows(ValidationException.class, () -> changeService.getChanges(owner.getId(), -1L, 100));
+    }
+
+    private ItemDto createItem() {
+        return itemService.create(ItemDto.builder()
+                .name("Дрель")
+                .description("Мощная дрель")
+                .available(true)
+                .build(), owner.getId());
+    }
+
+    // Задерживает коммит текущей транзакции после выдачи ей номеров изменений
+    private static void holdBeforeCommit(CountDownLatch numbered, CountDownLatch release) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.LOWEST_PRECEDENCE;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                numbered.countDown();
+                awaitQuietly(release);
+            }
+        });
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private BookingDto createBooking(ItemDto item) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        return bookingService.create(new BookingRequestDto(item.getId(), start, start.plusHours(2)), booker.getId());
+    }
+}
\ No newline at end of file
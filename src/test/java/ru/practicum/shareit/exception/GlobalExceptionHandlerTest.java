@@ -1,10 +1,13 @@
 package ru.practicum.shareit.exception;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MissingRequestHeaderException;
 
+import java.sql.SQLException;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class GlobalExceptionHandlerTest {
@@ -44,6 +47,29 @@ class GlobalExceptionHandlerTest {
         assertEquals("Conflict occurred", response.getBody().getError());
     }
 
+    @Test
+    void shouldReturnConflictStatusForApprovedBookingOverlap() {
+        DataIntegrityViolationException exception = new DataIntegrityViolationException("constraint violated",
+                new SQLException("Approved bookings of item 1 overlap", "23P01"));
+
+        ResponseEntity<GlobalExceptionHandler.ErrorResponse> response =
+                handler.handleDataIntegrityViolationException(exception);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Booking overlaps another approved booking of the same item", response.getBody().getError());
+    }
+
+    @Test
+    void shouldReturnInternalServerErrorForOtherDataIntegrityViolations() {
+        DataIntegrityViolationException exception = new DataIntegrityViolationException("constraint violated",
+                new SQLException("value too long", "22001"));
+
+        ResponseEntity<GlobalExceptionHandler.ErrorResponse> response =
+                handler.handleDataIntegrityViolationException(exception);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
     @Test
     void shouldReturnBadRequestForMissingRequestHeader() {
         MissingRequestHeaderException exception = new MissingRequestHeaderException("X-Sharer-User-Id", null);
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.export;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(ExportServiceImpl.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class ExportServiceTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ExportService exportService;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        owner = em.persist(User.builder().name("Owner").email("owner@test.com").build());
+        booker = em.persist(User.builder().name("Booker").email("booker@test.com").build());
+        item = em.persist(Item.builder().name("Дрель, \"ударная\"").description("Мощная дрель").available(true)
+                .owner(owner).build());
+        for (int i = 0; i < 3; i++) {
+            em.persist(Booking.builder().start(base.plusDays(i)).end(base.plusDays(i).plusHours(1))
+                    .item(item).booker(booker).status(BookingStatus.WAITING).build());
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void exportOwnerBookingsShouldWriteOneJsonObjectPerLineNewestFirst() throws IOException {
+        List<String> lines = run(exportService.exportOwnerBookings(owner.getId(), ExportFormat.NDJSON)).lines().toList();
+
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"id\":"));
+        assertTrue(lines.get(0).contains("\"start\":\"2030-01-03T12:00:00\""));
+        assertTrue(lines.get(0).contains("\"itemName\":\"Дрель, \\\"ударная\\\"\""));
+        assertTrue(lines.get(0).contains("\"bookerId\":" + booker.getId()));
+        assertTrue(lines.get(2).contains("\"start\":\"2030-01-01T12:00:00\""));
+    }
+
+    @Test
+    void exportOwnerBookingsShouldEscapeCsvValues() throws IOException {
+        String csv = run(exportService.exportOwnerBookings(owner.getId(), ExportFormat.CSV));
+
+        List<String> lines = csv.lines().toList();
+        assertEquals("id,start,end,status,itemId,itemName,bookerId", lines.get(0));
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(1).endsWith(",2030-01-03T12:00:00,2030-01-03T13:00:00,WAITING,"
+                + item.getId() + ",\"Дрель, \"\"ударная\"\"\"," + booker.getId()));
+        assertTrue(csv.endsWith("\r\n"));
+    }
+
+    @Test
+    void exportOwnerItemsShouldStreamMoreRowsThanOneBatch() throws IOException {
+        int extra = ExportServiceImpl.BATCH_SIZE * 2;
+        for (int i = 0; i < extra; i++) {
+            em.persist(Item.builder().name("Вещь " + i).description("Описание").available(i % 2 == 0)
+                    .owner(owner).build());
+        }
+        em.flush();
+        em.clear();
+
+        List<String> lines = run(exportService.exportOwnerItems(owner.getId(), ExportFormat.NDJSON)).lines().toList();
+
+        assertEquals(extra + 1, lines.size());
+        assertTrue(lines.get(0).contains("\"id\":" + item.getId()));
+        assertTrue(lines.get(extra).contains("\"name\":\"Вещь " + (extra - 1) + "\""));
+    }
+
+    @Test
+    void exportShouldThrowNotFoundExceptionBeforeStreamingWhenUserNotFound() {
+        assertThrows(NotFoundException.class, () -> exportService.exportOwnerItems(999L, ExportFormat.CSV));
+    }
+
+    private String run(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
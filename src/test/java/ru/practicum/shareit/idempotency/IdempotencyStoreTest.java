@@ -0,0 +1,170 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private static final String OPERATION = "POST /items";
+
+    private final IdempotencyStore store = new IdempotencyStore(new ObjectMapper().findAndRegisterModules(),
+            60_000, 3, 5_000);
+    private final ItemDto request = item(null, "Дрель");
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void repeatedKeyShouldReturnStoredResponseWithoutCallingAction() {
+        ItemDto first = store.execute(OPERATION, 1L, "key", request, ItemDto.class, this::create);
+        ItemDto second = store.execute(OPERATION, 1L, "key", request, ItemDto.class, this::create);
+
+        assertEquals(1, calls.get());
+        assertEquals(first, second);
+    }
+
+    @Test
+    void sameKeyOfAnotherUserOrOperationShouldRunAgain() {
+        store.execute(OPERATION, 1L, "key", request, ItemDto.class, this::create);
+        store.execute(OPERATION, 2L, "key", request, ItemDto.class, this::create);
+        store.execute("POST /bookings", 1L, "key", request, ItemDto.class, this::create);
+
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void reusedKeyWithDifferentRequestShouldConflict() {
+        store.execute(OPERATION, 1L, "key", request, ItemDto.class, this::create);
+        ItemDto other = item(null, "Пила");
+
+        assertThrows(ConflictException.class,
+                () -> store.execute(OPERATION, 1L, "key", other, ItemDto.class, this::create));
+    }
+
+    @Test
+    void failedRequestShouldNotBeStored() {
+        assertThrows(NotFoundException.class, () -> store.execute(OPERATION, 1L, "key", request, ItemDto.class,
+                () -> {
+                    throw new NotFoundException("User with id 1 not found");
+                }));
+
+        store.execute(OPERATION, 1L, "key", request, ItemDto.class, this::create);
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void concurrentDuplicatesShouldWaitForFirstRequest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ItemDto> first = CompletableFuture.supplyAsync(() ->
+                store.execute(OPERATION, 1L, "key", request, ItemDto.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return create();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ItemDto> duplicate = CompletableFuture.supplyAsync(() ->
+                store.execute(OPERATION, 1L, "key", request, ItemDto.class, this::create));
+
+        release.countDown();
+
+        assertEquals(first.get(5, TimeUnit.SECONDS), duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void storeShouldEvictOldestKeysBeyondCapacity() {
+        for (int i = 0; i < 10; i++) {
+            store.execute(OPERATION, 1L, "key-" + i, request, ItemDto.class, this::create);
+        }
+
+        assertTrue(store.size() <= 4);
+    }
+
+    @Test
+    void keyOfRunningRequestShouldNotBeEvicted() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ItemDto> running = CompletableFuture.supplyAsync(() ->
+                store.execute(OPERATION, 1L, "running", request, ItemDto.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return create();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            store.execute(OPERATION, 1L, "key-" + i, request, ItemDto.class, this::create);
+        }
+
+        // Ключ на месте: запрос с другим телом сразу получает конфликт, а не выполняется
+        assertThrows(ConflictException.class, () -> store.execute(OPERATION, 1L, "running", item(null, "Пила"),
+                ItemDto.class, this::create));
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        assertEquals(11, calls.get());
+    }
+
+    @Test
+    void duplicateShouldGetConflictWhenFirstRequestRunsTooLong() throws Exception {
+        IdempotencyStore impatient = new IdempotencyStore(new ObjectMapper(), 60_000, 3, 100);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ItemDto> running = CompletableFuture.supplyAsync(() ->
+                impatient.execute(OPERATION, 1L, "key", request, ItemDto.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return create();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ConflictException.class,
+                () -> impatient.execute(OPERATION, 1L, "key", request, ItemDto.class, this::create));
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void errorInActionShouldReleaseKey() {
+        assertThrows(StackOverflowError.class, () -> store.execute(OPERATION, 1L, "key", request, ItemDto.class,
+                () -> {
+                    throw new StackOverflowError();
+                }));
+
+        store.execute(OPERATION, 1L, "key", request, ItemDto.class, this::create);
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void blankKeyShouldBeRejected() {
+        assertThrows(ValidationException.class,
+                () -> store.execute(OPERATION, 1L, " ", request, ItemDto.class, this::create));
+    }
+
+    private ItemDto create() {
+        return item((long) calls.incrementAndGet(), "Дрель");
+    }
+
+    private static ItemDto item(Long id, String name) {
+        return ItemDto.builder().id(id).name(name).description("Мощная дрель").available(true).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FullTextItemSearchTest {
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final FullTextItemSearch search = new FullTextItemSearch(itemRepository);
+
+    @Test
+    void toPrefixQueryShouldRequireEveryWordAsPrefix() {
+        assertEquals("дрел:* & удар:*", FullTextItemSearch.toPrefixQuery("дрел удар"));
+        assertEquals("drill:* & 18V:*", FullTextItemSearch.toPrefixQuery("  drill, 18V "));
+    }
+
+    @Test
+    void toPrefixQueryShouldDropTsquerySyntax() {
+        assertEquals("a:* & b:*", FullTextItemSearch.toPrefixQuery("a:* | !b & ("));
+        assertEquals("", FullTextItemSearch.toPrefixQuery("&|!()"));
+    }
+
+    @Test
+    void searchShouldPassPageAsOffset() {
+        when(itemRepository.searchFullText("дрель:*", 20, 40L)).thenReturn(List.of());
+
+        search.search("дрель", 2, 20);
+
+        verify(itemRepository).searchFullText("дрель:*", 20, 40L);
+    }
+
+    @Test
+    void searchShouldNotQueryWhenTextHasNoWords() {
+        assertTrue(search.search("!!!", 0, 10).isEmpty());
+        verify(itemRepository, never()).searchFullText(anyString(), anyInt(), anyLong());
+    }
+}
\ No newline at end of file
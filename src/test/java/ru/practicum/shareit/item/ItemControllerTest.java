@@ -9,6 +9,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.*;
 
@@ -16,6 +20,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,6 +39,9 @@ class ItemControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private BookingService bookingService;
+
     private ItemDto itemDto;
     private ItemDetailedDto itemDetailedDto;
     private ItemOwnerDto itemOwnerDto;
@@ -92,6 +101,24 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.available").value(true));
     }
 
+    @Test
+    void shouldReplayCreatedItemWhenIdempotencyKeyRepeats() throws Exception {
+        when(itemService.create(any(ItemDto.class), anyLong())).thenReturn(itemDto);
+        String key = "item-create-" + System.nanoTime();
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/items")
+                            .header(USER_ID_HEADER, VALID_USER_ID)
+                            .header("Idempotency-Key", key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(itemDto)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(1L));
+        }
+
+        verify(itemService, times(1)).create(any(ItemDto.class), anyLong());
+    }
+
     @Test
     void shouldReturnBadRequestWhenUserIdHeaderMissing() throws Exception {
         mockMvc.perform(post("/items")
@@ -164,7 +191,7 @@ class ItemControllerTest {
 
     @Test
     void shouldReturnItemsWhenValidSearchText() throws Exception {
-        when(itemService.search(anyString())).thenReturn(List.of(itemDto));
+        when(itemService.search("дрель", null, null)).thenReturn(List.of(itemDto));
 
         mockMvc.perform(get("/items/search")
                         .param("text", "дрель"))
@@ -195,4 +222,83 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.text").value("Great item!"));
     }
+
+    @Test
+    void shouldReturnFreeWindowsOfItem() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        when(itemService.getAvailability(1L, from, to))
+                .thenReturn(List.of(new FreeWindowDto(from, from.plusDays(2))));
+
+        mockMvc.perform(get("/items/{itemId}/availability", 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-08T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].start").value("2030-01-01T00:00:00"))
+                .andExpect(jsonPath("$[0].end").value("2030-01-03T00:00:00"));
+    }
+
+    @Test
+    void shouldReturnOwnerUtilization() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(itemService.getUtilization(1L, from, from.plusDays(10)))
+                .thenReturn(List.of(ItemUtilizationDto.builder()
+                        .itemId(1L)
+                        .bookedDays(3L)
+                        .occupancyRatio(0.25)
+                        .build()));
+
+        mockMvc.perform(get("/items/analytics")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-11T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].itemId").value(1))
+                .andExpect(jsonPath("$[0].bookedDays").value(3))
+                .andExpect(jsonPath("$[0].occupancyRatio").value(0.25));
+    }
+
+    @Test
+    void shouldSearchAvailableItemsWhenPeriodGiven() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(itemService.searchAvailableBetween("дрель", from, from.plusDays(2), 1, 5))
+                .thenReturn(List.of(itemDto));
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "дрель")
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-03T00:00:00")
+                        .param("page", "1")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Дрель"));
+    }
+
+    @Test
+    void shouldReturnOccupancyOfItem() throws Exception {
+        when(itemService.getOccupancy(1L, 2030))
+                .thenReturn(new ItemOccupancyDto(1L, 2030, "0".repeat(365)));
+
+        mockMvc.perform(get("/items/{itemId}/occupancy", 1L)
+                        .param("year", "2030"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.year").value(2030))
+                .andExpect(jsonPath("$.days").value("0".repeat(365)));
+    }
+
+    @Test
+    void shouldReturnItemBookingsWithNextCursorHeader() throws Exception {
+        BookingDto booking = BookingDto.builder().id(5L).build();
+        when(bookingService.getItemBookings(VALID_USER_ID, 1L, BookingState.FUTURE, "abc", 1))
+                .thenReturn(BookingPageDto.builder().bookings(List.of(booking)).nextCursor("def").build());
+
+        mockMvc.perform(get("/items/{itemId}/bookings", 1L)
+                        .header(USER_ID_HEADER, VALID_USER_ID)
+                        .param("state", "FUTURE")
+                        .param("cursor", "abc")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "def"))
+                .andExpect(jsonPath("$[0].id").value(5));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.item;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDetailedDto;
+import ru.practicum.shareit.item.dto.ItemOwnerDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ItemServiceImpl.class)
+class ItemFetchPlanTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ItemService itemService;
+
+    @MockBean
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @MockBean
+    private ItemOccupancyStore itemOccupancyStore;
+
+    @MockBean
+    private ItemUtilizationAnalytics itemUtilizationAnalytics;
+
+    @MockBean
+    private ItemSearch itemSearch;
+
+    @MockBean
+    private ItemSearchCache itemSearchCache;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        statistics = em.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        owner = em.persist(User.builder().name("Owner").email("owner@test.com").build());
+        booker = em.persist(User.builder().name("Booker").email("booker@test.com").build());
+    }
+
+    @Test
+    void ownerItemsShouldCostConstantStatementsRegardlessOfItemCount() {
+        persistItems(2);
+        long few = countStatements(() -> itemService.getAllByOwner(owner.getId()));
+
+        persistItems(30);
+        long many = countStatements(() -> {
+            List<ItemOwnerDto> items = itemService.getAllByOwner(owner.getId());
+            assertEquals(32, items.size());
+            items.forEach(dto -> {
+                assertNotNull(dto.getLastBooking());
+                assertNotNull(dto.getNextBooking());
+            });
+        });
+
+        // поиск пользователя + вещи владельца + одна выборка последних и следующих броней
+        assertEquals(3, few);
+        assertEquals(few, many);
+    }
+
+    @Test
+    void ownerItemsShouldPickClosestApprovedBookingsOnEachSideOfNow() {
+        Item item = persistItem();
+        persistBooking(item, now.minusDays(10), BookingStatus.APPROVED);
+        Booking last = persistBooking(item, now.minusDays(3), BookingStatus.APPROVED);
+        persistBooking(item, now.minusDays(1), BookingStatus.REJECTED);
+        persistBooking(item, now.plusDays(1), BookingStatus.WAITING);
+        Booking next = persistBooking(item, now.plusDays(2), BookingStatus.APPROVED);
+        persistBooking(item, now.plusDays(5), BookingStatus.APPROVED);
+        Item idle = persistItem();
+        em.flush();
+        em.clear();
+
+        List<ItemOwnerDto> items = itemService.getAllByOwner(owner.getId());
+
+        ItemOwnerDto busy = items.stream().filter(dto -> dto.getId().equals(item.getId())).findFirst().orElseThrow();
+        assertEquals(last.getId(), busy.getLastBooking().getId());
+        assertEquals(booker.getId(), busy.getLastBooking().getBookerId());
+        assertEquals(next.getId(), busy.getNextBooking().getId());
+        ItemOwnerDto free = items.stream().filter(dto -> dto.getId().equals(idle.getId())).findFirst().orElseThrow();
+        assertNull(free.getLastBooking());
+        assertNull(free.getNextBooking());
+    }
+
+    @Test
+    void getByIdForOwnerShouldUseSameSingleBookingQuery() {
+        Item item = persistItems(1);
+
+        long statements = countStatements(() -> {
+            ItemDetailedDto dto = itemService.getById(item.getId(), owner.getId());
+            assertNotNull(dto.getLastBooking());
+            assertNotNull(dto.getNextBooking());
+        });
+
+        // вещь + комментарии + последняя и следующая брони
+        assertEquals(3, statements);
+    }
+
+    private long countStatements(Runnable action) {
+        em.flush();
+        em.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Item persistItems(int count) {
+        Item item = null;
+        for (int i = 0; i < count; i++) {
+            item = persistItem();
+            persistBooking(item, now.minusDays(2), BookingStatus.APPROVED);
+            persistBooking(item, now.plusDays(2), BookingStatus.APPROVED);
+        }
+        return item;
+    }
+
+    private Item persistItem() {
+        return em.persist(Item.builder().name("Дрель").description("Мощная дрель").available(true)
+                .owner(owner).build());
+    }
+
+    private Booking persistBooking(Item item, LocalDateTime start, BookingStatus status) {
+        return em.persist(Booking.builder()
+                .start(start)
+                .end(start.plusHours(1))
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build());
+    }
+}
\ No newline at end of file
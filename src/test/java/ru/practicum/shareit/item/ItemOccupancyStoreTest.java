@@ -0,0 +1,180 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStatusChangedEvent;
+import ru.practicum.shareit.item.model.ItemOccupancy;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemOccupancyStoreTest {
+
+    @Mock
+    private ItemOccupancyRepository occupancyRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private ItemOccupancyStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ItemOccupancyStore(occupancyRepository, itemRepository, bookingRepository, 100);
+    }
+
+    @Test
+    void markShouldSetDaysTouchedByBookingWithinYear() {
+        BitSet days = new BitSet();
+
+        // с вечера 30 декабря до полудня 2 января: в 2030 году заняты два последних дня
+        ItemOccupancyStore.mark(days, 2030, LocalDateTime.of(2030, 12, 30, 18, 0),
+                LocalDateTime.of(2031, 1, 2, 12, 0));
+
+        assertEquals(2, days.cardinality());
+        assertTrue(days.get(363));
+        assertTrue(days.get(364));
+    }
+
+    @Test
+    void markShouldTreatEndAtMidnightAsExclusive() {
+        BitSet days = new BitSet();
+
+        ItemOccupancyStore.mark(days, 2030, LocalDateTime.of(2030, 1, 1, 10, 0),
+                LocalDateTime.of(2030, 1, 3, 0, 0));
+
+        assertEquals(BitSet.valueOf(new long[]{0b11}), days);
+    }
+
+    @Test
+    void getShouldBuildBitmapFromBookingsWhenNotPersistedAndCacheIt() {
+        when(occupancyRepository.findById(any())).thenReturn(Optional.empty());
+        when(bookingRepository.findByItemIdAndStatusAndStartBeforeAndEndAfter(
+                eq(1L), eq(BookingStatus.APPROVED), any(), any()))
+                .thenReturn(List.of(Booking.builder()
+                        .start(LocalDateTime.of(2030, 1, 5, 10, 0))
+                        .end(LocalDateTime.of(2030, 1, 6, 10, 0))
+                        .build()));
+
+        BitSet first = store.get(1L, 2030);
+        BitSet second = store.get(1L, 2030);
+
+        assertEquals(BitSet.valueOf(new long[]{0b110000}), first);
+        assertEquals(first, second);
+        verify(occupancyRepository, times(1)).findById(any());
+    }
+
+    @Test
+    void cacheShouldKeepOnlyConfiguredNumberOfBitmaps() {
+        ItemOccupancyStore small = new ItemOccupancyStore(occupancyRepository, itemRepository, bookingRepository, 1);
+        when(occupancyRepository.findById(any())).thenReturn(Optional.of(new ItemOccupancy(1L, 2030,
+                new byte[ItemOccupancyStore.BITMAP_BYTES])));
+
+        small.get(1L, 2030);
+        small.get(1L, 2031);
+        small.get(1L, 2030);
+
+        verify(occupancyRepository, times(2)).findById(new ItemOccupancy.Key(1L, 2030));
+    }
+
+    @Test
+    void approvalShouldUpdatePersistedBitmap() {
+        BitSet existing = new BitSet();
+        existing.set(0);
+        when(occupancyRepository.findById(new ItemOccupancy.Key(1L, 2030)))
+                .thenReturn(Optional.of(new ItemOccupancy(1L, 2030, existing.toByteArray())));
+
+        store.onBookingApproved(approvedEvent(LocalDateTime.of(2030, 1, 3, 10, 0),
+                LocalDateTime.of(2030, 1, 4, 10, 0)));
+
+        ArgumentCaptor<ItemOccupancy> saved = ArgumentCaptor.forClass(ItemOccupancy.class);
+        verify(itemRepository).findForUpdateById(1L);
+        verify(occupancyRepository).save(saved.capture());
+        assertEquals(BitSet.valueOf(new long[]{0b1101}), BitSet.valueOf(saved.getValue().getDays()));
+        assertEquals(ItemOccupancyStore.BITMAP_BYTES, saved.getValue().getDays().length);
+    }
+
+    @Test
+    void approvalShouldCreateBitmapForEveryYearTouched() {
+        when(occupancyRepository.findById(any())).thenReturn(Optional.empty());
+
+        store.onBookingApproved(approvedEvent(LocalDateTime.of(2030, 12, 31, 10, 0),
+                LocalDateTime.of(2031, 1, 1, 10, 0)));
+
+        verify(occupancyRepository, times(2)).save(any(ItemOccupancy.class));
+        verify(bookingRepository, times(2)).findByItemIdAndStatusAndStartBeforeAndEndAfter(
+                eq(1L), eq(BookingStatus.APPROVED), any(), any());
+    }
+
+    @Test
+    void approvalShouldSkipYearsThatCannotBeRequested() {
+        int lastYear = Year.now().getValue() + ItemOccupancyStore.MAX_YEARS_FROM_NOW;
+        when(occupancyRepository.findById(any())).thenReturn(Optional.empty());
+
+        // Бронь на тысячу лет вперёд: карты пишутся только до последнего допустимого года
+        store.onBookingApproved(approvedEvent(LocalDateTime.of(lastYear - 1, 6, 1, 10, 0),
+                LocalDateTime.of(lastYear + 1000, 1, 1, 10, 0)));
+
+        ArgumentCaptor<ItemOccupancy> saved = ArgumentCaptor.forClass(ItemOccupancy.class);
+        verify(occupancyRepository, times(2)).save(saved.capture());
+        assertEquals(List.of(lastYear - 1, lastYear),
+                saved.getAllValues().stream().map(ItemOccupancy::getYear).toList());
+    }
+
+    @Test
+    void evictionShouldDropOnlyYearsOfApprovedBooking() {
+        int year = Year.now().getValue() + 1;
+        when(occupancyRepository.findById(any())).thenAnswer(invocation -> Optional.of(new ItemOccupancy(1L, year,
+                new byte[ItemOccupancyStore.BITMAP_BYTES])));
+        store.get(1L, year);
+        store.get(1L, year + 1);
+        store.get(2L, year);
+
+        store.evictAfterApproval(approvedEvent(LocalDateTime.of(year, 3, 1, 10, 0),
+                LocalDateTime.of(year, 3, 2, 10, 0)));
+        store.get(1L, year);
+        store.get(1L, year + 1);
+        store.get(2L, year);
+
+        verify(occupancyRepository, times(2)).findById(new ItemOccupancy.Key(1L, year));
+        verify(occupancyRepository, times(1)).findById(new ItemOccupancy.Key(1L, year + 1));
+        verify(occupancyRepository, times(1)).findById(new ItemOccupancy.Key(2L, year));
+    }
+
+    @Test
+    void rejectionShouldNotTouchBitmaps() {
+        store.onBookingApproved(BookingStatusChangedEvent.builder()
+                .itemId(1L)
+                .status(BookingStatus.REJECTED)
+                .build());
+
+        verifyNoInteractions(occupancyRepository, itemRepository);
+    }
+
+    private BookingStatusChangedEvent approvedEvent(LocalDateTime start, LocalDateTime end) {
+        return BookingStatusChangedEvent.builder()
+                .bookingId(1L)
+                .itemId(1L)
+                .start(start)
+                .end(end)
+                .previousStatus(BookingStatus.WAITING)
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+}
\ No newline at end of file
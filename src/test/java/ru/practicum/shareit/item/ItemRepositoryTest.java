@@ -0,0 +1,116 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.model.BookedInterval;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingCounts;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class ItemRepositoryTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private User owner;
+    private User booker;
+    private Item freeDrill;
+    private Item bookedDrill;
+    private Item waitingDrill;
+    private final LocalDateTime from = LocalDateTime.of(2030, 1, 10, 0, 0);
+    private final LocalDateTime to = LocalDateTime.of(2030, 1, 12, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        owner = em.persist(User.builder().name("Owner").email("owner@test.com").build());
+        booker = em.persist(User.builder().name("Booker").email("booker@test.com").build());
+        freeDrill = persistItem("Дрель", true);
+        bookedDrill = persistItem("Дрель ударная", true);
+        waitingDrill = persistItem("Дрель аккумуляторная", true);
+        persistItem("Дрель сломанная", false);
+        persistItem("Лестница", true);
+
+        // подтверждённая бронь, пересекающая период, и брони, которые его не блокируют
+        persistBooking(bookedDrill, from.minusDays(1), from.plusHours(1), BookingStatus.APPROVED);
+        persistBooking(freeDrill, to, to.plusDays(1), BookingStatus.APPROVED);
+        persistBooking(waitingDrill, from, to, BookingStatus.WAITING);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void searchAvailableShouldFilterUnavailableItemsInQueryAndPage() {
+        List<Item> firstPage = itemRepository.searchAvailable("дрель", PageRequest.of(0, 2, Sort.by("id")));
+        List<Item> secondPage = itemRepository.searchAvailable("дрель", PageRequest.of(1, 2, Sort.by("id")));
+
+        assertEquals(List.of(freeDrill.getId(), bookedDrill.getId()), firstPage.stream().map(Item::getId).toList());
+        assertEquals(List.of(waitingDrill.getId()), secondPage.stream().map(Item::getId).toList());
+    }
+
+    @Test
+    void searchAvailableBetweenShouldSkipItemsWithOverlappingApprovedBooking() {
+        List<Item> result = itemRepository.searchAvailableBetween("дрель", from, to, BookingStatus.APPROVED,
+                PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(List.of(freeDrill.getId(), waitingDrill.getId()),
+                result.stream().map(Item::getId).toList());
+    }
+
+    @Test
+    void searchAvailableBetweenShouldMatchAllItemsForEmptyTextAndPage() {
+        List<Item> firstPage = itemRepository.searchAvailableBetween("", from, to, BookingStatus.APPROVED,
+                PageRequest.of(0, 2, Sort.by("id")));
+        List<Item> secondPage = itemRepository.searchAvailableBetween("", from, to, BookingStatus.APPROVED,
+                PageRequest.of(1, 2, Sort.by("id")));
+
+        assertEquals(2, firstPage.size());
+        assertEquals(1, secondPage.size());
+        assertEquals("Лестница", secondPage.get(0).getName());
+    }
+
+    @Test
+    void countBookingsByOwnerIdShouldGroupBookingsOverlappingPeriodIncludingIdleItems() {
+        persistBooking(waitingDrill, from.plusHours(1), from.plusHours(2), BookingStatus.REJECTED);
+        em.flush();
+
+        List<ItemBookingCounts> counts = itemRepository.countBookingsByOwnerId(owner.getId(), from, to);
+
+        assertEquals(5, counts.size());
+        assertEquals(new ItemBookingCounts(freeDrill.getId(), "Дрель", 0L, 0L, 0L), counts.get(0));
+        assertEquals(new ItemBookingCounts(bookedDrill.getId(), "Дрель ударная", 1L, 1L, 0L), counts.get(1));
+        assertEquals(new ItemBookingCounts(waitingDrill.getId(), "Дрель аккумуляторная", 2L, 0L, 1L),
+                counts.get(2));
+    }
+
+    @Test
+    void findApprovedIntervalsByOwnerIdShouldReturnOnlyApprovedBookingsOverlappingPeriod() {
+        List<BookedInterval> intervals = itemRepository.findApprovedIntervalsByOwnerId(owner.getId(), from, to);
+
+        assertEquals(List.of(new BookedInterval(bookedDrill.getId(), from.minusDays(1), from.plusHours(1))),
+                intervals);
+    }
+
+    private Item persistItem(String name, boolean available) {
+        return em.persist(Item.builder().name(name).description(name).available(available).owner(owner).build());
+    }
+
+    private void persistBooking(Item item, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        em.persist(Booking.builder().start(start).end(end).item(item).booker(booker).status(status).build());
+    }
+}
\ No newline at end of file
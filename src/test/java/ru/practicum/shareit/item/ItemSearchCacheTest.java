@@ -0,0 +1,159 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemSearchCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ItemSearchCache cache = new ItemSearchCache(meterRegistry, 100, 60_000, 0.3);
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @Test
+    void repeatedQueryShouldBeServedFromCacheIgnoringCaseAndOuterSpaces() {
+        cache.get("Дрель", 0, 10, search(1));
+        List<ItemDto> cached = cache.get("  дрель ", 0, 10, search(2));
+
+        assertEquals(List.of(1L), ids(cached));
+        assertEquals(1, searches.get());
+        assertEquals(1, meterRegistry.counter("shareit.items.search.cache.hits").count());
+        assertEquals(1, meterRegistry.counter("shareit.items.search.cache.misses").count());
+    }
+
+    @Test
+    void changeOfCachedItemShouldInvalidateOnlyPagesContainingIt() {
+        cache.get("дрель", 0, 10, search(1));
+        cache.get("лестница", 0, 10, search(2));
+
+        // "Дрезина" делит с запросом лишь начало слова, этого мало для совпадения
+        cache.onItemChanged(changed(1, "Дрезина", "Ручная"));
+
+        cache.get("дрель", 0, 10, search(1));
+        cache.get("лестница", 0, 10, search(2));
+        assertEquals(3, searches.get());
+    }
+
+    @Test
+    void changedItemMatchingQueryShouldInvalidateItsPages() {
+        cache.get("дрель", 0, 10, search(1));
+        cache.get("лестница", 0, 10, search(2));
+
+        // новая вещь с опечаткой в названии найдётся поиском по триграммам
+        cache.onItemChanged(changed(3, "Дерль", "Сетевая"));
+
+        cache.get("дрель", 0, 10, search(1, 3));
+        cache.get("лестница", 0, 10, search(2));
+        assertEquals(3, searches.get());
+        assertEquals(1, meterRegistry.counter("shareit.items.search.cache.invalidations").count());
+    }
+
+    @Test
+    void changeOfShortQueryWordInsideItemTextShouldInvalidatePage() {
+        cache.get("ре", 0, 10, search(1));
+
+        cache.onItemChanged(changed(3, "Дрель", "Сетевая"));
+
+        cache.get("ре", 0, 10, search(1, 3));
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    void resultLoadedConcurrentlyWithChangeOfItsItemShouldNotBeCached() {
+        cache.get("дрель", 0, 10, () -> {
+            cache.onItemChanged(changed(1, "Пила", "Цепная"));
+            return List.of(dto(1));
+        });
+
+        cache.get("дрель", 0, 10, search());
+
+        assertEquals(1, searches.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void resultLoadedConcurrentlyWithChangeMatchingQueryShouldNotBeCached() {
+        cache.get("дрель", 0, 10, () -> {
+            cache.onItemChanged(changed(5, "Дрель аккумуляторная", "Новая"));
+            return List.of(dto(1));
+        });
+
+        cache.get("дрель", 0, 10, search(1, 5));
+
+        assertEquals(1, searches.get());
+    }
+
+    @Test
+    void resultLoadedConcurrentlyWithUnrelatedChangeShouldBeCached() {
+        cache.get("дрель", 0, 10, () -> {
+            cache.onItemChanged(changed(5, "Пила", "Цепная"));
+            return List.of(dto(1));
+        });
+
+        cache.get("дрель", 0, 10, search(1));
+
+        assertEquals(0, searches.get());
+        assertEquals(1, meterRegistry.counter("shareit.items.search.cache.hits").count());
+    }
+
+    @Test
+    void leastRecentlyReadPageShouldBeEvictedWhenFull() {
+        ItemSearchCache single = new ItemSearchCache(meterRegistry, 1, 60_000, 0.3);
+        single.get("дрель", 0, 10, search(1));
+        single.get("пила", 0, 10, search(2));
+        single.get("дрель", 0, 10, search(1));
+        single.get("дрель", 0, 10, search(1));
+
+        assertEquals(3, searches.get());
+        assertEquals(2, meterRegistry.counter("shareit.items.search.cache.evictions").count());
+        assertEquals(1, single.size());
+    }
+
+    @Test
+    void evictedPageShouldNotBeInvalidatedLater() {
+        ItemSearchCache single = new ItemSearchCache(meterRegistry, 1, 60_000, 0.3);
+        single.get("дрель", 0, 10, search(1));
+        single.get("пила", 0, 10, search(2));
+
+        single.onItemChanged(changed(1, "Дрель", "Ударная"));
+
+        assertEquals(0, meterRegistry.counter("shareit.items.search.cache.invalidations").count());
+        assertEquals(1, single.size());
+    }
+
+    @Test
+    void expiredPageShouldBeSearchedAgain() {
+        ItemSearchCache shortLived = new ItemSearchCache(meterRegistry, 2, 0, 0.3);
+        shortLived.get("дрель", 0, 10, search(1));
+        shortLived.get("дрель", 0, 10, search(1));
+
+        assertEquals(2, searches.get());
+    }
+
+    private Supplier<List<ItemDto>> search(long... ids) {
+        return () -> {
+            searches.incrementAndGet();
+            return Arrays.stream(ids).mapToObj(ItemSearchCacheTest::dto).toList();
+        };
+    }
+
+    private static ItemDto dto(long id) {
+        return ItemDto.builder().id(id).name("Вещь " + id).available(true).build();
+    }
+
+    private static ItemChangedEvent changed(long itemId, String name, String description) {
+        return ItemChangedEvent.builder().itemId(itemId).name(name).description(description).available(true)
+                .type(ItemChangedEvent.Type.UPDATED).build();
+    }
+
+    private static List<Long> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).toList();
+    }
+}
\ No newline at end of file
@@ -1,23 +1,33 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.bulk.dto.BulkOutcome;
+import ru.practicum.shareit.bulk.dto.BulkResultDto;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDeletedEvent;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,6 +46,18 @@ class ItemServiceTest {
     private BookingRepository bookingRepository;
     @Mock
     private CommentRepository commentRepository;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemOccupancyStore itemOccupancyStore;
+    @Mock
+    private ItemUtilizationAnalytics itemUtilizationAnalytics;
+    @Mock
+    private ItemSearch itemSearch;
+    @Spy
+    private ItemSearchCache itemSearchCache = new ItemSearchCache(new SimpleMeterRegistry(), 100, 60_000, 0.3);
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private ItemServiceImpl itemService;
@@ -106,6 +128,16 @@ class ItemServiceTest {
         assertEquals(1L, result.getId());
         assertEquals("Дрель", result.getName());
         assertTrue(result.getAvailable());
+        verify(eventPublisher).publishEvent(ItemChangedEvent.of(item, ItemChangedEvent.Type.CREATED));
+    }
+
+    @Test
+    void userDeletionShouldPublishDeletedEventForEachOwnedItem() {
+        when(itemRepository.findByOwnerId(1L)).thenReturn(List.of(item));
+
+        itemService.onUserDeleted(new UserDeletedEvent(1L));
+
+        verify(eventPublisher).publishEvent(ItemChangedEvent.of(item, ItemChangedEvent.Type.DELETED));
     }
 
     @Test
@@ -149,6 +181,23 @@ class ItemServiceTest {
         assertThrows(NotFoundException.class, () -> itemService.update(999L, itemDto, 1L));
     }
 
+    @Test
+    void updateAvailabilityShouldUpdateOnlyOwnedItemsInSingleStatement() {
+        Item foreign = Item.builder().id(2L).name("Пила").description("Ручная пила").available(true)
+                .owner(booker).build();
+        when(itemRepository.findAllById(anyIterable())).thenReturn(List.of(item, foreign));
+
+        List<BulkResultDto> result = itemService.updateAvailability(1L, List.of(1L, 2L, 3L), false);
+
+        assertEquals(List.of(
+                new BulkResultDto(1L, BulkOutcome.UPDATED),
+                new BulkResultDto(2L, BulkOutcome.FORBIDDEN),
+                new BulkResultDto(3L, BulkOutcome.NOT_FOUND)), result);
+        verify(itemRepository).updateAvailability(List.of(1L), 1L, false);
+        verify(eventPublisher).publishEvent(argThat((ItemChangedEvent event) ->
+                event.getItemId().equals(1L) && !event.getAvailable()));
+    }
+
     @Test
     void getItemByIdShouldReturnItemResponseDtoWithComments() {
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
@@ -173,12 +222,8 @@ class ItemServiceTest {
     void getAllItemsByOwnerShouldReturnItemOwnerDtoList() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
         when(itemRepository.findByOwnerId(1L)).thenReturn(List.of(item));
-        when(bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(
-                eq(1L), any(LocalDateTime.class), eq(BookingStatus.APPROVED)))
-                .thenReturn(Optional.of(booking));
-        when(bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
-                eq(1L), any(LocalDateTime.class), eq(BookingStatus.APPROVED)))
-                .thenReturn(Optional.empty());
+        when(bookingRepository.findLastAndNextApprovedByItemOwnerId(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(List.of(booking));
 
         List<ItemOwnerDto> result = itemService.getAllByOwner(1L);
 
@@ -199,9 +244,9 @@ class ItemServiceTest {
 
     @Test
     void searchItemsShouldReturnAvailableItemsWhenValidText() {
-        when(itemRepository.search("дрель")).thenReturn(List.of(item));
+        when(itemSearch.search("дрель", 0, 10)).thenReturn(List.of(item));
 
-        List<ItemDto> result = itemService.search("дрель");
+        List<ItemDto> result = itemService.search(" дрель ", 0, 10);
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -209,24 +254,56 @@ class ItemServiceTest {
         assertTrue(result.get(0).getAvailable());
     }
 
+    @Test
+    void searchItemsShouldReturnAllMatchesWithoutPageAndSize() {
+        when(itemSearch.search("дрель", 0, Integer.MAX_VALUE)).thenReturn(List.of(item));
+
+        List<ItemDto> result = itemService.search("дрель", null, null);
+
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void searchItemsShouldUseDefaultSizeWhenOnlyPageGiven() {
+        when(itemSearch.search("дрель", 2, 100)).thenReturn(List.of(item));
+
+        assertEquals(1, itemService.search("дрель", 2, null).size());
+    }
+
+    @Test
+    void searchItemsShouldServeRepeatedQueryFromCache() {
+        when(itemSearch.search("дрель", 0, 10)).thenReturn(List.of(item));
+
+        itemService.search("дрель", 0, 10);
+        List<ItemDto> result = itemService.search(" ДРЕЛЬ", 0, 10);
+
+        assertEquals(1, result.size());
+        verify(itemSearch, times(1)).search(anyString(), anyInt(), anyInt());
+    }
+
     @Test
     void searchItemsShouldReturnEmptyListWhenEmptyText() {
-        List<ItemDto> result = itemService.search("");
+        List<ItemDto> result = itemService.search("", 0, 10);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(itemRepository, never()).search(anyString());
+        verifyNoInteractions(itemSearch);
     }
 
     @Test
     void searchItemsShouldReturnEmptyListWhenNoMatchingItems() {
-        when(itemRepository.search("xyz")).thenReturn(List.of());
+        when(itemSearch.search("xyz", 0, 10)).thenReturn(List.of());
 
-        List<ItemDto> result = itemService.search("xyz");
+        List<ItemDto> result = itemService.search("xyz", 0, 10);
 
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void searchItemsShouldThrowValidationExceptionWhenSizeInvalid() {
+        assertThrows(ValidationException.class, () -> itemService.search("дрель", 0, 0));
+    }
+
     @Test
     void addCommentShouldReturnCommentDtoWhenValid() {
         CommentCreateDto createDto = new CommentCreateDto("Great item!");
@@ -243,6 +320,7 @@ class ItemServiceTest {
         assertNotNull(result);
         assertEquals("Great item!", result.getText());
         assertEquals(booker.getName(), result.getAuthorName());
+        verify(eventPublisher).publishEvent(CommentAddedEvent.of(comment));
     }
 
     @Test
@@ -270,19 +348,15 @@ class ItemServiceTest {
         assertEquals(1, result.getComments().size());
         assertNull(result.getLastBooking());
         assertNull(result.getNextBooking());
-        verify(bookingRepository, never()).findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(any(), any(), any());
+        verify(bookingRepository, never()).findLastAndNextApprovedByItemId(any(), any());
     }
 
     @Test
     void getItemByIdShouldReturnItemDetailedDtoWithBookingsForOwner() {
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(commentRepository.findByItemId(1L)).thenReturn(List.of(comment));
-        when(bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(
-                eq(1L), any(LocalDateTime.class), eq(BookingStatus.APPROVED)))
-                .thenReturn(Optional.of(booking));
-        when(bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
-                eq(1L), any(LocalDateTime.class), eq(BookingStatus.APPROVED)))
-                .thenReturn(Optional.empty());
+        when(bookingRepository.findLastAndNextApprovedByItemId(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(List.of(booking));
 
         ItemDetailedDto result = itemService.getById(1L, 1L);
 
@@ -291,4 +365,116 @@ class ItemServiceTest {
         assertNotNull(result.getLastBooking());
         assertNull(result.getNextBooking());
     }
+
+    @Test
+    void getAvailabilityShouldReturnFreeWindowsFromIndex() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        List<FreeWindowDto> windows = List.of(new FreeWindowDto(from, to));
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(bookingIntervalIndex.freeWindows(1L, from, to)).thenReturn(windows);
+
+        assertEquals(windows, itemService.getAvailability(1L, from, to));
+    }
+
+    @Test
+    void getAvailabilityShouldThrowValidationExceptionWhenRangeEmpty() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        assertThrows(ValidationException.class, () -> itemService.getAvailability(1L, from, from));
+        verifyNoInteractions(bookingIntervalIndex);
+    }
+
+    @Test
+    void getAvailabilityShouldThrowNotFoundExceptionWhenItemMissing() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(itemRepository.existsById(999L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> itemService.getAvailability(999L, from, from.plusDays(1)));
+    }
+
+    @Test
+    void searchAvailableBetweenShouldDelegateToAntiJoinQuery() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(3);
+        when(itemRepository.searchAvailableBetween(eq("дрель"), eq(from), eq(to), eq(BookingStatus.APPROVED),
+                any(Pageable.class))).thenReturn(List.of(item));
+
+        List<ItemDto> result = itemService.searchAvailableBetween(" дрель ", from, to, 0, 10);
+
+        assertEquals(1, result.size());
+        assertEquals("Дрель", result.get(0).getName());
+    }
+
+    @Test
+    void searchAvailableBetweenShouldThrowValidationExceptionWhenRangeIncomplete() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        assertThrows(ValidationException.class,
+                () -> itemService.searchAvailableBetween("дрель", from, null, 0, 10));
+    }
+
+    @Test
+    void searchAvailableBetweenShouldThrowValidationExceptionWhenSizeInvalid() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        assertThrows(ValidationException.class,
+                () -> itemService.searchAvailableBetween("дрель", from, from.plusDays(1), 0, 0));
+    }
+
+    @Test
+    void getOccupancyShouldRenderOneCharacterPerDay() {
+        BitSet occupied = new BitSet();
+        occupied.set(1);
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(itemOccupancyStore.get(1L, 2028)).thenReturn(occupied);
+
+        ItemOccupancyDto result = itemService.getOccupancy(1L, 2028);
+
+        assertEquals(366, result.getDays().length());
+        assertEquals("010", result.getDays().substring(0, 3));
+    }
+
+    @Test
+    void getOccupancyShouldRejectYearsFarFromNow() {
+        int farYear = Year.now().getValue() + 11;
+
+        assertThrows(ValidationException.class, () -> itemService.getOccupancy(1L, farYear));
+        verifyNoInteractions(itemOccupancyStore);
+    }
+
+    @Test
+    void getOccupancyShouldThrowNotFoundExceptionWhenItemMissing() {
+        when(itemRepository.existsById(999L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> itemService.getOccupancy(999L, 2030));
+    }
+
+    @Test
+    void getUtilizationShouldDelegateToAnalyticsWhenOwnerExists() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusMonths(1);
+        List<ItemUtilizationDto> utilization = List.of(ItemUtilizationDto.builder().itemId(1L).build());
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(itemUtilizationAnalytics.get(1L, from, to)).thenReturn(utilization);
+
+        assertEquals(utilization, itemService.getUtilization(1L, from, to));
+    }
+
+    @Test
+    void getUtilizationShouldRejectEmptyOrTooLongPeriod() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        assertThrows(ValidationException.class, () -> itemService.getUtilization(1L, from, from));
+        assertThrows(ValidationException.class, () -> itemService.getUtilization(1L, from, from.plusYears(2)));
+        verifyNoInteractions(itemUtilizationAnalytics);
+    }
+
+    @Test
+    void getUtilizationShouldThrowNotFoundExceptionWhenOwnerMissing() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> itemService.getUtilization(999L, from, from.plusDays(1)));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStatusChangedEvent;
+import ru.practicum.shareit.item.dto.ItemUtilizationDto;
+import ru.practicum.shareit.item.model.BookedInterval;
+import ru.practicum.shareit.item.model.ItemBookingCounts;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemUtilizationAnalyticsTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private ItemUtilizationAnalytics analytics;
+
+    private final LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private final LocalDateTime to = LocalDateTime.of(2030, 1, 11, 0, 0);
+
+    @Test
+    void toDtoShouldClipIntervalsToPeriodAndCountTouchedDays() {
+        List<BookedInterval> intervals = List.of(
+                // началась до периода: в счёт идут только первые 12 часов 1 января
+                new BookedInterval(1L, from.minusDays(2), from.plusHours(12)),
+                // с вечера 3-го до утра 5-го: три календарных дня, 36 часов
+                new BookedInterval(1L, from.plusDays(2).plusHours(18), from.plusDays(4).plusHours(6)),
+                // заканчивается ровно в полночь 11-го, сам день 11-го не затронут
+                new BookedInterval(1L, from.plusDays(9), to.plusDays(3)));
+
+        ItemUtilizationDto dto = ItemUtilizationAnalytics.toDto(
+                new ItemBookingCounts(1L, "Дрель", 5L, 3L, 1L), intervals, from, to);
+
+        assertEquals(5L, dto.getBookedDays());
+        assertEquals((12 + 36 + 24) / 240.0, dto.getOccupancyRatio(), 1e-9);
+        assertEquals(0.75, dto.getApprovalRate(), 1e-9);
+        assertEquals(5L, dto.getBookings());
+    }
+
+    @Test
+    void toDtoShouldLeaveApprovalRateEmptyWithoutDecidedBookings() {
+        ItemUtilizationDto dto = ItemUtilizationAnalytics.toDto(
+                new ItemBookingCounts(1L, "Дрель", 2L, 0L, 0L), List.of(), from, to);
+
+        assertNull(dto.getApprovalRate());
+        assertEquals(0L, dto.getBookedDays());
+        assertEquals(0.0, dto.getOccupancyRatio());
+    }
+
+    @Test
+    void getShouldCacheResultUntilOwnerBookingChanges() {
+        when(itemRepository.countBookingsByOwnerId(1L, from, to))
+                .thenReturn(List.of(new ItemBookingCounts(10L, "Дрель", 0L, 0L, 0L)));
+        when(itemRepository.findApprovedIntervalsByOwnerId(1L, from, to)).thenReturn(List.of());
+
+        List<ItemUtilizationDto> first = analytics.get(1L, from, to);
+        List<ItemUtilizationDto> second = analytics.get(1L, from, to);
+        analytics.evictAfterBookingChange(BookingStatusChangedEvent.builder()
+                .ownerId(2L).status(BookingStatus.APPROVED).build());
+        analytics.get(1L, from, to);
+        analytics.evictAfterBookingChange(BookingStatusChangedEvent.builder()
+                .ownerId(1L).status(BookingStatus.APPROVED).build());
+        analytics.get(1L, from, to);
+
+        assertSame(first, second);
+        verify(itemRepository, times(2)).countBookingsByOwnerId(1L, from, to);
+    }
+
+    @Test
+    void getShouldNotCacheResultComputedBeforeConcurrentEviction() {
+        when(itemRepository.countBookingsByOwnerId(1L, from, to)).thenAnswer(invocation -> {
+            // Бронь изменилась и закоммитилась, пока шёл расчёт по старым данным
+            analytics.evictAfterBookingChange(BookingStatusChangedEvent.builder()
+                    .ownerId(1L).status(BookingStatus.APPROVED).build());
+            return List.of(new ItemBookingCounts(10L, "Дрель", 0L, 0L, 0L));
+        });
+        when(itemRepository.findApprovedIntervalsByOwnerId(1L, from, to)).thenReturn(List.of());
+
+        analytics.get(1L, from, to);
+        analytics.get(1L, from, to);
+
+        verify(itemRepository, times(2)).countBookingsByOwnerId(1L, from, to);
+    }
+
+    @Test
+    void getShouldKeepOnlyLimitedNumberOfPeriodsPerOwner() {
+        when(itemRepository.countBookingsByOwnerId(eq(1L), any(), any())).thenReturn(List.of());
+        when(itemRepository.findApprovedIntervalsByOwnerId(eq(1L), any(), any())).thenReturn(List.of());
+
+        for (int day = 0; day <= 10; day++) {
+            analytics.get(1L, from.plusDays(day), to.plusDays(day));
+        }
+        analytics.get(1L, from.plusDays(10), to.plusDays(10));
+        analytics.get(1L, from, to);
+
+        // Самый старый из одиннадцати периодов вытеснен и считается заново, последний берётся из кэша
+        verify(itemRepository, times(2)).countBookingsByOwnerId(1L, from, to);
+        verify(itemRepository, times(1)).countBookingsByOwnerId(1L, from.plusDays(10), to.plusDays(10));
+    }
+}
\ No newline at end of file
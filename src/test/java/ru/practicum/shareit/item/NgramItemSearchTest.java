@@ -0,0 +1,128 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.change.ChangeSequencer;
+import ru.practicum.shareit.item.model.Item;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NgramItemSearchTest {
+
+    @TempDir
+    Path dir;
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final ChangeSequencer changeSequencer = mock(ChangeSequencer.class);
+
+    @Test
+    void restartShouldRestoreIndexFromSegmentsAndCatchUpFromSavedWatermark() {
+        NgramItemSearch first = open();
+        when(changeSequencer.safeSeq()).thenReturn(5L);
+        when(itemRepository.findByChangeSeqBetween(eq(0L), eq(5L), any(), any(), any()))
+                .thenReturn(window(item(1, 3, "Дрель ударная"), item(2, 4, "Лестница")));
+        first.catchUp();
+        first.close();
+
+        NgramItemSearch second = open();
+
+        assertEquals(List.of(1L), ids(second.search("дрел", 0, 10)));
+        when(changeSequencer.safeSeq()).thenReturn(7L);
+        when(itemRepository.findByChangeSeqBetween(eq(6L), eq(7L), any(), any(), any())).thenReturn(window());
+        second.catchUp();
+        verify(itemRepository).findByChangeSeqBetween(eq(6L), eq(7L), any(), any(), any());
+    }
+
+    @Test
+    void changeFailedToIndexAfterCommitShouldBePickedUpByCatchUp() {
+        NgramItemSearch search = open();
+        when(itemRepository.findById(1L)).thenThrow(new IllegalStateException("connection refused"));
+        search.onItemChanged(ItemChangedEvent.builder().itemId(1L).build());
+        assertTrue(search.search("дрель", 0, 10).isEmpty());
+
+        when(changeSequencer.safeSeq()).thenReturn(1L);
+        when(itemRepository.findByChangeSeqBetween(eq(0L), eq(1L), any(), any(), any()))
+                .thenReturn(window(item(1, 1, "Дрель")));
+        search.catchUp();
+
+        assertEquals(List.of(1L), ids(search.search("дрель", 0, 10)));
+    }
+
+    @Test
+    void deletedItemShouldBeRemovedAndStayRemovedAfterRestart() {
+        NgramItemSearch first = open();
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item(1, 1, "Дрель")));
+        first.onItemChanged(ItemChangedEvent.builder().itemId(1L).build());
+
+        first.onItemChanged(ItemChangedEvent.builder().itemId(1L).type(ItemChangedEvent.Type.DELETED).build());
+
+        assertTrue(first.search("дрель", 0, 10).isEmpty());
+        // Старая версия, прочитанная догрузкой до удаления, вещь не возвращает
+        when(changeSequencer.safeSeq()).thenReturn(1L);
+        when(itemRepository.findByChangeSeqBetween(eq(0L), eq(1L), any(), any(), any()))
+                .thenReturn(window(item(1, 1, "Дрель")));
+        first.catchUp();
+        assertTrue(first.search("дрель", 0, 10).isEmpty());
+        first.close();
+
+        assertTrue(open().search("дрель", 0, 10).isEmpty());
+    }
+
+    @Test
+    void startShouldRemoveItemsMissingInDatabase() {
+        NgramItemSearch first = open();
+        when(changeSequencer.safeSeq()).thenReturn(2L);
+        when(itemRepository.findByChangeSeqBetween(eq(0L), eq(2L), any(), any(), any()))
+                .thenReturn(window(item(1, 1, "Дрель"), item(2, 2, "Дрель аккумуляторная")));
+        first.catchUp();
+        first.close();
+
+        NgramItemSearch second = open();
+        when(itemRepository.findIdsByIdIn(List.of(1L, 2L))).thenReturn(List.of(2L));
+        second.start();
+
+        assertEquals(List.of(2L), ids(second.search("дрель", 0, 10)));
+    }
+
+    @Test
+    void itemChangeShouldReplaceIndexedVersion() {
+        NgramItemSearch search = open();
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item(1, 1, "Дрель")));
+        search.onItemChanged(ItemChangedEvent.builder().itemId(1L).build());
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item(1, 2, "Пила")));
+        search.onItemChanged(ItemChangedEvent.builder().itemId(1L).build());
+
+        assertTrue(search.search("дрель", 0, 10).isEmpty());
+        Item found = search.search("пила", 0, 10).get(0);
+        assertEquals("Пила", found.getName());
+        assertEquals(2L, found.getChangeSeq());
+    }
+
+    private NgramItemSearch open() {
+        NgramItemSearch search = new NgramItemSearch(itemRepository, changeSequencer,
+                mock(PlatformTransactionManager.class), dir, 1, 0.3);
+        search.open();
+        return search;
+    }
+
+    private static Window<Item> window(Item... items) {
+        return Window.from(List.of(items), index -> ScrollPosition.offset(index));
+    }
+
+    private static Item item(long id, long changeSeq, String name) {
+        return Item.builder().id(id).changeSeq(changeSeq).name(name).description("").available(true).build();
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).toList();
+    }
+}
\ No newline at end of file
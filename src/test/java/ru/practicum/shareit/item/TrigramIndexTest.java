@@ -0,0 +1,122 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    @Test
+    void searchShouldTolerateTypos() {
+        index.put(document(1, 1, "Дрель", "Ударная дрель", true));
+        index.put(document(2, 2, "Лестница", "Стремянка на пять ступеней", true));
+
+        assertEquals(List.of(1L), ids(index.search("дерль", 0.3, 0, 10)));
+        assertEquals(List.of(2L), ids(index.search("лесница", 0.3, 0, 10)));
+        assertTrue(index.search("пылесос", 0.3, 0, 10).isEmpty());
+    }
+
+    @Test
+    void searchShouldRankBySimilarityThenShorterDocuments() {
+        index.put(document(1, 1, "Дрель аккумуляторная", "Две батареи и кейс", true));
+        index.put(document(2, 2, "Дрель", "Сетевая", true));
+        index.put(document(3, 3, "Дрезина", "Ручная", true));
+
+        assertEquals(List.of(2L, 1L, 3L), ids(index.search("дрель", 0.2, 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("дрель", 0.2, 1, 1)));
+    }
+
+    @Test
+    void putShouldReplaceTrigramsOfChangedItem() {
+        index.put(document(1, 1, "Дрель", "Ударная", true));
+        index.put(document(1, 2, "Пила", "Цепная", true));
+
+        assertTrue(index.search("дрель", 0.3, 0, 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("пила", 0.3, 0, 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void tombstoneShouldHideItemAndRejectLaterVersions() {
+        index.put(document(1, 1, "Дрель", "Ударная", true));
+        index.put(document(2, 2, "Дрель", "Аккумуляторная", true));
+
+        assertTrue(index.put(TrigramIndex.Document.tombstone(1)));
+        assertFalse(index.put(document(1, 3, "Дрель", "Ударная", true)));
+        assertFalse(index.put(TrigramIndex.Document.tombstone(1)));
+
+        assertEquals(List.of(2L), ids(index.search("дрель", 0.3, 0, 10)));
+        assertEquals(1, index.size());
+        assertEquals(List.of(2L), index.documents().stream().map(TrigramIndex.Document::itemId).toList());
+    }
+
+    @Test
+    void putShouldIgnoreOlderVersion() {
+        index.put(document(1, 5, "Пила", "Цепная", true));
+
+        assertFalse(index.put(document(1, 4, "Дрель", "Ударная", true)));
+        assertTrue(index.put(document(1, 5, "Пила", "Цепная", true)));
+        assertEquals("Пила", index.documents().iterator().next().name());
+    }
+
+    @Test
+    void searchShouldSkipUnavailableItems() {
+        index.put(document(1, 1, "Дрель", "Ударная", false));
+        index.put(document(2, 2, "Дрель", "Сетевая", true));
+
+        assertEquals(List.of(2L), ids(index.search("дрель", 0.3, 0, 10)));
+    }
+
+    @Test
+    void compactShouldDropSupersededVersionsAndTombstones() {
+        index.put(document(1, 1, "Дрель", "Ударная", true));
+        index.put(document(2, 2, "Дрель", "Сетевая", true));
+        index.put(document(1, 3, "Пила", "Цепная", true));
+        index.put(TrigramIndex.Document.tombstone(2));
+        index.put(document(3, 4, "Дрель", "Аккумуляторная", true));
+
+        index.compact();
+
+        assertEquals(List.of(3L), ids(index.search("дрель", 0.3, 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("пила", 0.3, 0, 10)));
+        assertEquals(2, index.size());
+        assertEquals(List.of(1L, 3L), index.documents().stream().map(TrigramIndex.Document::itemId).toList());
+
+        assertTrue(index.put(document(1, 5, "Дрель", "Ударная", true)));
+        assertEquals(List.of(1L, 3L), ids(index.search("дрель", 0.3, 0, 10)));
+        assertTrue(index.search("пила", 0.3, 0, 10).isEmpty());
+    }
+
+    @Test
+    void compactShouldForgetTombstonedItem() {
+        index.put(document(1, 1, "Дрель", "Ударная", true));
+        index.put(TrigramIndex.Document.tombstone(1));
+
+        index.compact();
+
+        assertEquals(0, index.size());
+        assertTrue(index.put(document(1, 2, "Дрель", "Ударная", true)));
+        assertEquals(List.of(1L), ids(index.search("дрель", 0.3, 0, 10)));
+    }
+
+    @Test
+    void trigramsShouldIgnoreCaseAndPunctuation() {
+        assertArrayEquals(TrigramIndex.trigrams("дрель"), TrigramIndex.trigrams("  ДРЕЛЬ!"));
+        // "  д", " др", "дре", "рел", "ель", "ль "
+        assertEquals(6, TrigramIndex.trigrams("дрель").length);
+        assertEquals(0, TrigramIndex.trigrams("!?").length);
+    }
+
+    private static TrigramIndex.Document document(long id, long changeSeq, String name, String description,
+                                                  boolean available) {
+        return new TrigramIndex.Document(id, changeSeq, name, description, available, null);
+    }
+
+    private static List<Long> ids(List<TrigramIndex.Document> documents) {
+        return documents.stream().map(TrigramIndex.Document::itemId).toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramSegmentStoreTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendedDocumentsShouldSurviveReopen() {
+        TrigramSegmentStore store = open();
+        store.append(document(1, 1, "Дрель", 7L));
+        store.append(document(1, 2, "Дрель ударная", null));
+        store.close();
+
+        List<TrigramIndex.Document> loaded = reload();
+
+        assertEquals(List.of(document(1, 1, "Дрель", 7L), document(1, 2, "Дрель ударная", null)), loaded);
+    }
+
+    @Test
+    void loadShouldDropTornRecordAndContinueAfterLastValidOne() throws IOException {
+        TrigramSegmentStore store = open();
+        store.append(document(1, 1, "Дрель", null));
+        store.append(document(2, 2, "Пила", null));
+        store.close();
+        // порча последнего байта второй записи имитирует недописанную при падении запись
+        Path segment = segments().get(0);
+        int secondRecordEnd = 2 * 41 + utf8Length("Дрель") + utf8Length("Пила") + 2 * utf8Length("описание");
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(secondRecordEnd - 1);
+            int last = file.read();
+            file.seek(secondRecordEnd - 1);
+            file.write(last ^ 0xFF);
+        }
+
+        TrigramSegmentStore reopened = new TrigramSegmentStore(dir, SEGMENT_BYTES);
+        assertEquals(List.of(document(1, 1, "Дрель", null)), reopened.load());
+        reopened.append(document(3, 3, "Лестница", null));
+        reopened.close();
+
+        assertEquals(List.of(1L, 3L), reload().stream().map(TrigramIndex.Document::itemId).toList());
+    }
+
+    @Test
+    void appendShouldRollToNextSegmentWhenCurrentIsFull() throws IOException {
+        TrigramSegmentStore store = open();
+        for (int i = 1; i <= 100; i++) {
+            store.append(document(i, i, "Вещь " + i, null));
+        }
+        store.close();
+
+        assertTrue(segments().size() > 1);
+        assertEquals(100, reload().size());
+    }
+
+    @Test
+    void compactShouldKeepOnlyLiveDocuments() throws IOException {
+        TrigramSegmentStore store = open();
+        for (int i = 1; i <= 100; i++) {
+            store.append(document(1, i, "Вещь " + i, null));
+        }
+
+        store.compact(() -> List.of(document(1, 100, "Вещь 100", null)));
+        store.close();
+
+        // Сегмент снимка и новый текущий сегмент
+        assertEquals(2, segments().size());
+        assertEquals(List.of(document(1, 100, "Вещь 100", null)), reload());
+    }
+
+    @Test
+    void appendDuringCompactionShouldGoToNewSegmentAndSurvive() {
+        TrigramSegmentStore store = open();
+        for (int i = 1; i <= 100; i++) {
+            store.append(document(1, i, "Вещь " + i, null));
+        }
+
+        store.compact(() -> {
+            // снимок берётся после переключения сегмента, дозапись в это время идёт в новый сегмент
+            store.append(document(2, 101, "Пила", null));
+            return List.of(document(1, 100, "Вещь 100", null));
+        });
+        store.append(document(3, 102, "Лестница", null));
+        store.close();
+
+        assertEquals(List.of(1L, 2L, 3L), reload().stream().map(TrigramIndex.Document::itemId).toList());
+        assertEquals(3, store.recordCount());
+    }
+
+    @Test
+    void watermarkShouldSurviveReopen() {
+        TrigramSegmentStore store = open();
+        assertEquals(-1, store.watermark());
+        store.append(document(1, 1, "Дрель", null));
+        store.saveWatermark(5);
+        store.close();
+
+        TrigramSegmentStore reopened = open();
+        assertEquals(5, reopened.watermark());
+        assertEquals(1, reopened.recordCount());
+    }
+
+    private TrigramSegmentStore open() {
+        TrigramSegmentStore store = new TrigramSegmentStore(dir, SEGMENT_BYTES);
+        store.load();
+        return store;
+    }
+
+    private List<TrigramIndex.Document> reload() {
+        return new TrigramSegmentStore(dir, SEGMENT_BYTES).load();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static int utf8Length(String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static TrigramIndex.Document document(long id, long changeSeq, String name, Long requestId) {
+        return new TrigramIndex.Document(id, changeSeq, name, "описание", true, requestId);
+    }
+}
\ No newline at end of file
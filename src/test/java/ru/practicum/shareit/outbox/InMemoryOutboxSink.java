@@ -0,0 +1,36 @@
+package ru.practicum.shareit.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<List<OutboxEvent>> batches = new ArrayList<>();
+    private boolean failing;
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        if (failing) {
+            throw new IllegalStateException("Sink is unavailable");
+        }
+        batches.add(List.copyOf(events));
+    }
+
+    // Бин общий для тестов одного контекста
+    void reset() {
+        batches.clear();
+        failing = false;
+    }
+
+    void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    List<List<OutboxEvent>> batches() {
+        return batches;
+    }
+
+    List<OutboxEvent> published() {
+        return batches.stream().flatMap(List::stream).toList();
+    }
+}
\ No newline at end of file
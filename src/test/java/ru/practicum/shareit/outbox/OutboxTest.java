@@ -0,0 +1,199 @@
+package ru.practicum.shareit.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStatusChangedEvent;
+import ru.practicum.shareit.item.CommentAddedEvent;
+import ru.practicum.shareit.item.ItemChangedEvent;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Ретранслятор вызывается явно; плановый запуск отправил бы события, закоммиченные тестом, раньше проверки
+@DataJpaTest(properties = {
+        "shareit.outbox.relay.enabled=true",
+        "shareit.outbox.relay.batch-size=2",
+        "shareit.outbox.relay.delay-ms=3600000"
+})
+@Import({OutboxWriter.class, OutboxRelay.class, OutboxTest.SinkConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class OutboxTest {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TestConfiguration
+    static class SinkConfig {
+        @Bean
+        InMemoryOutboxSink inMemoryOutboxSink() {
+            return new InMemoryOutboxSink();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        sink.reset();
+    }
+
+    @Test
+    void writerShouldAppendEventsInCallerTransaction() {
+        eventPublisher.publishEvent(bookingEvent(7L, null, BookingStatus.WAITING));
+        eventPublisher.publishEvent(ItemChangedEvent.builder().itemId(3L).ownerId(1L).name("Дрель")
+                .available(true).type(ItemChangedEvent.Type.UPDATED).build());
+
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+
+        assertEquals(2, events.size());
+        assertEquals("BOOKING", events.get(0).getAggregateType());
+        assertEquals(7L, events.get(0).getAggregateId());
+        assertEquals("BOOKING_CREATED", events.get(0).getEventType());
+        assertTrue(events.get(0).getPayload().contains("\"bookingId\":7"));
+        assertEquals("ITEM_UPDATED", events.get(1).getEventType());
+        assertTrue(events.get(1).getPayload().contains("\"name\":\"Дрель\""));
+    }
+
+    @Test
+    void relayShouldPublishAllEventsInOrderAndRemoveThem() {
+        eventPublisher.publishEvent(bookingEvent(1L, null, BookingStatus.WAITING));
+        eventPublisher.publishEvent(bookingEvent(2L, null, BookingStatus.WAITING));
+        eventPublisher.publishEvent(bookingEvent(1L, BookingStatus.WAITING, BookingStatus.APPROVED));
+        eventPublisher.publishEvent(bookingEvent(2L, BookingStatus.WAITING, BookingStatus.REJECTED));
+        eventPublisher.publishEvent(bookingEvent(3L, null, BookingStatus.WAITING));
+
+        outboxRelay.relay();
+
+        assertEquals(List.of("BOOKING_CREATED", "BOOKING_CREATED", "BOOKING_APPROVED", "BOOKING_REJECTED",
+                        "BOOKING_CREATED"),
+                sink.published().stream().map(OutboxEvent::getEventType).toList());
+        assertEquals(List.of(2, 2, 1), sink.batches().stream().map(List::size).toList());
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    void relayShouldKeepEventsWhenSinkFails() {
+        eventPublisher.publishEvent(bookingEvent(1L, null, BookingStatus.WAITING));
+        sink.setFailing(true);
+
+        outboxRelay.relay();
+
+        assertTrue(sink.published().isEmpty());
+        assertEquals(1, outboxEventRepository.count());
+    }
+
+    @Test
+    void writerShouldStoreCommentPayloadLongerThanVarcharLimit() {
+        eventPublisher.publishEvent(CommentAddedEvent.builder().commentId(1L).itemId(3L).authorId(2L)
+                .text("\"".repeat(2000)).created(LocalDateTime.now()).build());
+
+        assertTrue(outboxEventRepository.findAll().get(0).getPayload().length() > 4000);
+    }
+
+    // Вторая транзакция над той же вещью получает id события только после коммита первой
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void eventsOfOneItemShouldGetIdsInCommitOrder() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        User owner = userRepository.save(User.builder().name("Owner").email("outbox-owner@test.com").build());
+        Item item = itemRepository.save(Item.builder().name("Дрель").description("Ударная").available(true)
+                .owner(owner).build());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch firstWritten = new CountDownLatch(1);
+            CountDownLatch releaseFirst = new CountDownLatch(1);
+            Future<?> first = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                eventPublisher.publishEvent(itemEvent(item.getId(), "first"));
+                firstWritten.countDown();
+                await(releaseFirst);
+            }));
+            await(firstWritten);
+            Future<?> second = executor.submit(() -> transactionTemplate.executeWithoutResult(status ->
+                    eventPublisher.publishEvent(itemEvent(item.getId(), "second"))));
+
+            Thread.sleep(200);
+            assertFalse(second.isDone());
+            releaseFirst.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+
+            List<OutboxEvent> events = outboxEventRepository.findAll(Sort.by("id"));
+            assertEquals(2, events.size());
+            assertTrue(events.get(0).getPayload().contains("\"name\":\"first\""));
+        } finally {
+            executor.shutdownNow();
+            outboxEventRepository.deleteAll();
+            itemRepository.deleteAll();
+            userRepository.deleteAll();
+        }
+    }
+
+    private static ItemChangedEvent itemEvent(Long itemId, String name) {
+        return ItemChangedEvent.builder().itemId(itemId).ownerId(1L).name(name).available(true)
+                .type(ItemChangedEvent.Type.UPDATED).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BookingStatusChangedEvent bookingEvent(Long bookingId, BookingStatus previous, BookingStatus status) {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        return BookingStatusChangedEvent.builder()
+                .bookingId(bookingId)
+                .itemId(1L)
+                .bookerId(2L)
+                .ownerId(3L)
+                .start(start)
+                .end(start.plusHours(1))
+                .previousStatus(previous)
+                .status(status)
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package ru.practicum.shareit.reminder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStatusChangedEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BookingReminderSchedulerTest {
+
+    private static final long LEAD_MS = 60_000;
+    private static final long HORIZON_MS = 3_600_000;
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final ReminderClaimStore claimStore = mock(ReminderClaimStore.class);
+    private final List<BookingReminder> sent = new ArrayList<>();
+    private BookingReminderScheduler scheduler;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+        when(bookingRepository.streamTimesByStatusBetween(eq(BookingStatus.APPROVED), any(), any()))
+                .thenAnswer(invocation -> Stream.empty());
+        when(claimStore.claim(any(), any())).thenReturn(true);
+        scheduler = new BookingReminderScheduler(bookingRepository, sent::add, claimStore,
+                mock(PlatformTransactionManager.class), LEAD_MS, LEAD_MS, HORIZON_MS, 1000);
+    }
+
+    @Test
+    void recoverShouldLoadApprovedBookingsWithinHorizon() {
+        BookingTimes soon = bookingTimes(1L, now.plusMinutes(10), now.plusMinutes(20));
+        BookingTimes endsLater = bookingTimes(2L, now.plusMinutes(30), now.plusHours(5));
+        when(bookingRepository.streamTimesByStatusBetween(eq(BookingStatus.APPROVED), any(), any()))
+                .thenReturn(Stream.of(soon, endsLater));
+
+        scheduler.recover();
+
+        // у второй брони в горизонт попадает только начало
+        assertEquals(3, scheduler.pendingCount());
+        scheduler.advance(now.plusMinutes(29).plusSeconds(1));
+        assertEquals(List.of(BookingReminder.Type.START, BookingReminder.Type.END, BookingReminder.Type.START),
+                sent.stream().map(BookingReminder::getType).toList());
+        assertEquals(List.of(1L, 1L, 2L), sent.stream().map(BookingReminder::getBookingId).toList());
+    }
+
+    @Test
+    void approvalShouldScheduleBothReminders() {
+        scheduler.recover();
+
+        scheduler.onBookingStatusChanged(event(7L, BookingStatus.WAITING, BookingStatus.APPROVED));
+        assertEquals(2, scheduler.pendingCount());
+
+        scheduler.advance(now.plusMinutes(20));
+        assertEquals(List.of(BookingReminder.Type.START, BookingReminder.Type.END),
+                sent.stream().map(BookingReminder::getType).toList());
+    }
+
+    @Test
+    void reminderClaimedByAnotherNodeShouldNotBeSent() {
+        scheduler.recover();
+        when(claimStore.claim(argThat(reminder -> reminder.getType() == BookingReminder.Type.START), any()))
+                .thenReturn(false);
+
+        scheduler.onBookingStatusChanged(event(7L, BookingStatus.WAITING, BookingStatus.APPROVED));
+        scheduler.advance(now.plusMinutes(20));
+
+        assertEquals(List.of(BookingReminder.Type.END), sent.stream().map(BookingReminder::getType).toList());
+        assertEquals(0, scheduler.pendingCount());
+    }
+
+    @Test
+    void leadNotShorterThanHalfOfHorizonShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BookingReminderScheduler(bookingRepository,
+                sent::add, claimStore, mock(PlatformTransactionManager.class), HORIZON_MS / 2, LEAD_MS,
+                HORIZON_MS, 1000));
+    }
+
+    @Test
+    void repeatedApprovalShouldReplaceTimersInsteadOfDuplicating() {
+        scheduler.recover();
+
+        scheduler.onBookingStatusChanged(event(7L, BookingStatus.WAITING, BookingStatus.APPROVED));
+        scheduler.onBookingStatusChanged(event(7L, BookingStatus.WAITING, BookingStatus.APPROVED));
+
+        assertEquals(2, scheduler.pendingCount());
+    }
+
+    @Test
+    void rejectionOfWaitingBookingShouldNotTouchWheel() {
+        scheduler.recover();
+
+        scheduler.onBookingStatusChanged(event(7L, BookingStatus.WAITING, BookingStatus.REJECTED));
+
+        assertEquals(0, scheduler.pendingCount());
+    }
+
+    @Test
+    void advanceShouldLoadNextPartOfHorizon() {
+        scheduler.recover();
+        BookingTimes later = bookingTimes(3L, now.plusMinutes(90), now.plusMinutes(95));
+        when(bookingRepository.streamTimesByStatusBetween(eq(BookingStatus.APPROVED), any(), any()))
+                .thenReturn(Stream.of(later));
+
+        scheduler.advance(now.plusMinutes(40));
+
+        verify(bookingRepository, times(2)).streamTimesByStatusBetween(eq(BookingStatus.APPROVED), any(), any());
+        verify(claimStore).purgeSentBefore(now.minusMinutes(20));
+        assertEquals(2, scheduler.pendingCount());
+    }
+
+    @Test
+    void failingNotifierShouldNotStopOtherReminders() {
+        List<Long> delivered = new ArrayList<>();
+        scheduler = new BookingReminderScheduler(bookingRepository, reminder -> {
+            if (reminder.getBookingId() == 1L) {
+                throw new IllegalStateException("boom");
+            }
+            delivered.add(reminder.getBookingId());
+        }, claimStore, mock(PlatformTransactionManager.class), LEAD_MS, LEAD_MS, HORIZON_MS, 1000);
+        scheduler.recover();
+        scheduler.onBookingStatusChanged(event(1L, BookingStatus.WAITING, BookingStatus.APPROVED));
+        scheduler.onBookingStatusChanged(event(2L, BookingStatus.WAITING, BookingStatus.APPROVED));
+
+        scheduler.advance(now.plusMinutes(10));
+
+        assertEquals(List.of(2L), delivered);
+        assertEquals(2, scheduler.pendingCount());
+    }
+
+    private BookingTimes bookingTimes(Long bookingId, LocalDateTime start, LocalDateTime end) {
+        return new BookingTimes(bookingId, 10L, 20L, 30L, start, end);
+    }
+
+    private BookingStatusChangedEvent event(Long bookingId, BookingStatus previous, BookingStatus status) {
+        return BookingStatusChangedEvent.builder()
+                .bookingId(bookingId)
+                .itemId(10L)
+                .bookerId(20L)
+                .ownerId(30L)
+                .start(now.plusMinutes(5))
+                .end(now.plusMinutes(20))
+                .previousStatus(previous)
+                .status(status)
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.reminder;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(ReminderClaimStore.class)
+class ReminderClaimStoreTest {
+
+    @Autowired
+    private ReminderClaimStore claimStore;
+
+    private final LocalDateTime now = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Test
+    void reminderShouldBeClaimedOnlyOnce() {
+        assertTrue(claimStore.claim(reminder(1L, BookingReminder.Type.START), now));
+        assertFalse(claimStore.claim(reminder(1L, BookingReminder.Type.START), now.plusSeconds(1)));
+        assertTrue(claimStore.claim(reminder(1L, BookingReminder.Type.END), now));
+    }
+
+    @Test
+    void purgeShouldRemoveOnlyOldClaims() {
+        claimStore.claim(reminder(1L, BookingReminder.Type.START), now.minusDays(2));
+        claimStore.claim(reminder(2L, BookingReminder.Type.START), now);
+
+        assertEquals(1, claimStore.purgeSentBefore(now.minusDays(1)));
+        assertTrue(claimStore.claim(reminder(1L, BookingReminder.Type.START), now));
+        assertFalse(claimStore.claim(reminder(2L, BookingReminder.Type.START), now));
+    }
+
+    private static BookingReminder reminder(Long bookingId, BookingReminder.Type type) {
+        return BookingReminder.builder().type(type).bookingId(bookingId).build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long TICK = 1000;
+    private static final long START = 1_000_000 * TICK;
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, START);
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    void timerShouldFireOnItsTickAndNotEarlier() {
+        wheel.schedule(START + 5 * TICK, "a");
+
+        wheel.advance(START + 4 * TICK, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(START + 5 * TICK, fired::add);
+        assertEquals(List.of("a"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void timersBeyondFirstLevelShouldCascadeAndFireInOrder() {
+        // при 8 ячейках уровни покрывают 8, 64 и 512 тиков
+        long[] delays = {3, 9, 63, 64, 65, 300, 511, 4000};
+        for (long delay : delays) {
+            wheel.schedule(START + delay * TICK, String.valueOf(delay));
+        }
+
+        List<Long> firedAt = new ArrayList<>();
+        for (long tick = 1; tick <= 4000; tick++) {
+            int before = fired.size();
+            wheel.advance(START + tick * TICK, fired::add);
+            for (int i = before; i < fired.size(); i++) {
+                firedAt.add(tick);
+            }
+        }
+
+        assertEquals(List.of("3", "9", "63", "64", "65", "300", "511", "4000"), fired);
+        assertEquals(List.of(3L, 9L, 63L, 64L, 65L, 300L, 511L, 4000L), firedAt);
+    }
+
+    @Test
+    void advanceOverManyTicksAtOnceShouldFireEverythingDue() {
+        wheel.schedule(START + 2 * TICK, "near");
+        wheel.schedule(START + 100 * TICK, "far");
+        wheel.schedule(START + 1000 * TICK, "later");
+
+        wheel.advance(START + 500 * TICK, fired::add);
+
+        assertEquals(List.of("near", "far"), fired);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void cancelledTimerShouldNotFire() {
+        TimingWheel.Timer<String> cancelled = wheel.schedule(START + 70 * TICK, "cancelled");
+        wheel.schedule(START + 70 * TICK, "kept");
+
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        wheel.advance(START + 100 * TICK, fired::add);
+
+        assertEquals(List.of("kept"), fired);
+    }
+
+    @Test
+    void overdueTimerShouldFireOnNextAdvance() {
+        wheel.schedule(START - 10 * TICK, "overdue");
+
+        wheel.advance(START, fired::add);
+
+        assertEquals(List.of("overdue"), fired);
+    }
+
+    @Test
+    void deadlineBetweenTicksShouldRoundUp() {
+        wheel.schedule(START + TICK + 1, "a");
+
+        wheel.advance(START + TICK, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(START + 2 * TICK, fired::add);
+        assertEquals(List.of("a"), fired);
+    }
+}
\ No newline at end of file
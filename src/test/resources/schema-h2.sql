@@ -0,0 +1,4 @@
+-- H2-аналог триггера trg_booking_item_approved_overlap из schema-postgresql.sql для тестового профиля
+CREATE TRIGGER IF NOT EXISTS trg_booking_item_approved_overlap
+    BEFORE INSERT, UPDATE ON bookings
+    FOR EACH ROW CALL 'ru.practicum.shareit.booking.ApprovedBookingOverlapTrigger';
\ No newline at end of file